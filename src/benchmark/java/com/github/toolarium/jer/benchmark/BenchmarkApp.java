@@ -0,0 +1,73 @@
+/*
+ * BenchmarkApp.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * The trivial child application of the generated jars. It records the time its main was reached and its peak resident set size.
+ *
+ * @author patrick
+ */
+public final class BenchmarkApp {
+    /** The system property which defines the file to write the time the main was reached */
+    public static final String READY_FILE_PROPERTY = "jer.benchmark.ready";
+
+    
+    /**
+     * Constructor for BenchmarkApp
+     */
+    private BenchmarkApp() {
+        // NOP
+    }
+
+    
+    /**
+     * The main
+     *
+     * @param args the arguments
+     * @throws IOException In case of an I/O issue
+     */
+    public static void main(String[] args) throws IOException {
+        Instant reached = Instant.now();
+        String readyFile = System.getProperty(READY_FILE_PROPERTY);
+        if (readyFile != null) {
+            String content = reached.toString() + "\n" + readPeakResidentSetSize(ProcessHandle.current().pid()) + "\n";
+            Path tempFile = Paths.get(readyFile + ".tmp");
+            Files.write(tempFile, content.getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, Paths.get(readyFile));
+        }
+    }
+
+
+    
+    /**
+     * Read the peak resident set size of a process, it is only supported on linux.
+     *
+     * @param pid the process id
+     * @return the peak resident set size in kilobytes or -1 if it is not available
+     */
+    public static long readPeakResidentSetSize(long pid) {
+        try {
+            List<String> lines = Files.readAllLines(Paths.get("/proc/" + pid + "/status"), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // NOP, not supported or the process has already ended
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * BenchmarkResult.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * The metrics of all benchmark scenarios. It is stored as simple JSON object of scenarios, each scenario is an object of metrics.
+ *
+ * @author patrick
+ */
+public class BenchmarkResult {
+    private static final Pattern SCENARIO_PATTERN = Pattern.compile("\"([^\"]+)\"\\s*:\\s*\\{([^}]*)\\}");
+    private static final Pattern METRIC_PATTERN = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(-?[0-9.]+)");
+    private Map<String, Map<String, Double>> scenarios;
+
+    
+    /**
+     * Constructor for BenchmarkResult
+     */
+    public BenchmarkResult() {
+        scenarios = new LinkedHashMap<>();
+    }
+
+    
+    /**
+     * Add a metric
+     *
+     * @param scenario the scenario
+     * @param metric the metric
+     * @param value the value
+     */
+    public void add(String scenario, String metric, double value) {
+        scenarios.computeIfAbsent(scenario, key -> new LinkedHashMap<>()).put(metric, value);
+    }
+
+    
+    /**
+     * Get the metrics of a scenario
+     *
+     * @param scenario the scenario
+     * @return the metrics or null
+     */
+    public Map<String, Double> getMetrics(String scenario) {
+        return scenarios.get(scenario);
+    }
+
+    
+    /**
+     * Compare with a baseline, a metric is a regression if it exceeds the baseline by more than the threshold
+     *
+     * @param baseline the baseline
+     * @param threshold the threshold, e.g. 0.1 for 10%
+     * @return the regressions
+     */
+    public List<String> compare(BenchmarkResult baseline, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Double>> scenario : scenarios.entrySet()) {
+            Map<String, Double> baselineMetrics = baseline.getMetrics(scenario.getKey());
+            if (baselineMetrics == null) {
+                continue;
+            }
+            
+            for (Map.Entry<String, Double> metric : scenario.getValue().entrySet()) {
+                Double baselineValue = baselineMetrics.get(metric.getKey());
+                if (baselineValue != null && baselineValue > 0 && metric.getValue() > baselineValue * (1 + threshold)) {
+                    regressions.add(String.format(Locale.ROOT, "%s %s: %.1f > baseline %.1f (+%.0f%%)", scenario.getKey(), metric.getKey(), metric.getValue(), baselineValue, 
+                                                  (metric.getValue() / baselineValue - 1) * 100));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    
+    /**
+     * Convert to JSON
+     *
+     * @return the JSON
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Map<String, Double>> scenario : scenarios.entrySet()) {
+            if (i++ > 0) {
+                builder.append(",\n");
+            }
+            
+            builder.append("  \"").append(scenario.getKey()).append("\": {");
+            int j = 0;
+            for (Map.Entry<String, Double> metric : scenario.getValue().entrySet()) {
+                if (j++ > 0) {
+                    builder.append(", ");
+                }
+                builder.append('"').append(metric.getKey()).append("\": ").append(String.format(Locale.ROOT, "%.1f", metric.getValue()));
+            }
+            builder.append('}');
+        }
+        return builder.append("\n}\n").toString();
+    }
+
+    
+    /**
+     * Parse a JSON created by {@link #toJson()}
+     *
+     * @param json the JSON
+     * @return the benchmark result
+     */
+    public static BenchmarkResult fromJson(String json) {
+        BenchmarkResult result = new BenchmarkResult();
+        Matcher scenarioMatcher = SCENARIO_PATTERN.matcher(json);
+        while (scenarioMatcher.find()) {
+            Matcher metricMatcher = METRIC_PATTERN.matcher(scenarioMatcher.group(2));
+            while (metricMatcher.find()) {
+                result.add(scenarioMatcher.group(1), metricMatcher.group(1), Double.parseDouble(metricMatcher.group(2)));
+            }
+        }
+        return result;
+    }
+}
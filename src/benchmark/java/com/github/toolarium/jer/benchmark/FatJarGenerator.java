@@ -0,0 +1,186 @@
+/*
+ * FatJarGenerator.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+
+/**
+ * Generates a fat jar for a {@link JarShape}. It contains the content of the jer jar, the nested jars in lib/ and the 
+ * app.jar which runs the {@link BenchmarkApp}. The content is generated deterministically, no network is required.
+ *
+ * @author patrick
+ */
+public class FatJarGenerator {
+    /** The name of the jar resource to start */
+    public static final String APP_JAR = "app.jar";
+    private static final String LIB_PATH = "lib/";
+    private static final String CLASSES_PATH = "classes/";
+    private static final String[] WORDS = {"public", "static", "final", "class", "void", "return", "java/lang/Object", "java/lang/String", "<init>", "Code", "LineNumberTable"};
+    private static final byte[] CLASS_FILE_MAGIC = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE};
+    private File jerJar;
+
+    
+    /**
+     * Constructor for FatJarGenerator
+     *
+     * @param jerJar the jer jar
+     */
+    public FatJarGenerator(File jerJar) {
+        this.jerJar = jerJar;
+    }
+
+    
+    /**
+     * Generate a fat jar
+     *
+     * @param jarShape the jar shape
+     * @param outputPath the output path
+     * @return the generated jar
+     * @throws IOException In case of an I/O issue
+     */
+    public File generate(JarShape jarShape, File outputPath) throws IOException {
+        outputPath.mkdirs();
+        File fatJar = new File(outputPath, "bench-" + jarShape.getName() + ".jar");
+        Random random = new Random(jarShape.getName().hashCode());
+        
+        try (JarFile jer = new JarFile(jerJar); JarOutputStream jos = new JarOutputStream(new FileOutputStream(fatJar), jer.getManifest())) {
+            Enumeration<JarEntry> enumEntries = jer.entries();
+            while (enumEntries.hasMoreElements()) {
+                JarEntry jarEntry = enumEntries.nextElement();
+                if (JarFile.MANIFEST_NAME.equalsIgnoreCase(jarEntry.getName()) || "META-INF/".equals(jarEntry.getName())) {
+                    continue;
+                }
+                
+                jos.putNextEntry(new JarEntry(jarEntry.getName()));
+                try (InputStream is = jer.getInputStream(jarEntry)) {
+                    is.transferTo(jos);
+                }
+                jos.closeEntry();
+            }
+
+            for (int i = 0; i < jarShape.getClasses(); i++) {
+                write(jos, CLASSES_PATH + "p" + (i % 50) + "/C" + i + ".class", createContent(random, jarShape.getEntrySize()));
+            }
+
+            for (int i = 0; i < jarShape.getLibraries(); i++) {
+                write(jos, LIB_PATH + "lib-" + i + ".jar", createLibrary(random, i, jarShape));
+            }
+            
+            write(jos, APP_JAR, createApp(jarShape));
+        }
+        
+        return fatJar;
+    }
+
+    
+    /**
+     * Create a nested library
+     *
+     * @param random the random
+     * @param index the index of the library
+     * @param jarShape the jar shape
+     * @return the library content
+     * @throws IOException In case of an I/O issue
+     */
+    private byte[] createLibrary(Random random, int index, JarShape jarShape) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (JarOutputStream jos = new JarOutputStream(bos, new Manifest())) {
+            for (int i = 0; i < jarShape.getEntriesPerLibrary(); i++) {
+                write(jos, "com/example/lib" + index + "/p" + (i % 20) + "/C" + i + ".class", createContent(random, jarShape.getEntrySize()));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    
+    /**
+     * Create the app jar, its class path references all nested libraries
+     *
+     * @param jarShape the jar shape
+     * @return the app jar content
+     * @throws IOException In case of an I/O issue
+     */
+    private byte[] createApp(JarShape jarShape) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, BenchmarkApp.class.getName());
+        
+        StringBuilder classPath = new StringBuilder();
+        for (int i = 0; i < jarShape.getLibraries(); i++) {
+            if (i > 0) {
+                classPath.append(' ');
+            }
+            classPath.append(LIB_PATH).append("lib-").append(i).append(".jar");
+        }
+        
+        if (classPath.length() > 0) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath.toString());
+        }
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (JarOutputStream jos = new JarOutputStream(bos, manifest)) {
+            String name = BenchmarkApp.class.getName().replace('.', '/') + ".class";
+            try (InputStream is = BenchmarkApp.class.getClassLoader().getResourceAsStream(name)) {
+                write(jos, name, is.readAllBytes());
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    
+    /**
+     * Create compressible content which looks like a class file
+     *
+     * @param random the random
+     * @param size the average size
+     * @return the content
+     */
+    private byte[] createContent(Random random, int size) {
+        int length = size / 2 + random.nextInt(size + 1);
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append((char) random.nextInt(32));
+        }
+        
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) builder.charAt(i);
+        }
+        
+        // class file magic
+        for (int i = 0; i < Math.min(length, CLASS_FILE_MAGIC.length); i++) {
+            content[i] = CLASS_FILE_MAGIC[i];
+        }
+        return content;
+    }
+
+    
+    /**
+     * Write an entry
+     *
+     * @param jos the jar output stream
+     * @param name the name
+     * @param content the content
+     * @throws IOException In case of an I/O issue
+     */
+    private void write(JarOutputStream jos, String name, byte[] content) throws IOException {
+        jos.putNextEntry(new JarEntry(name));
+        jos.write(content);
+        jos.closeEntry();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * JarShape.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.benchmark;
+
+
+/**
+ * Describes the shape of a generated fat jar.
+ *
+ * @author patrick
+ */
+public class JarShape {
+    private String name;
+    private int libraries;
+    private int entriesPerLibrary;
+    private int classes;
+    private int entrySize;
+
+    
+    /**
+     * Constructor for JarShape
+     *
+     * @param name the name
+     * @param libraries the number of nested jars in lib/
+     * @param entriesPerLibrary the number of entries of each nested jar
+     * @param classes the number of loose class entries in the fat jar
+     * @param entrySize the average size of an entry in bytes
+     */
+    public JarShape(String name, int libraries, int entriesPerLibrary, int classes, int entrySize) {
+        this.name = name;
+        this.libraries = libraries;
+        this.entriesPerLibrary = entriesPerLibrary;
+        this.classes = classes;
+        this.entrySize = entrySize;
+    }
+
+    
+    /**
+     * Get the name
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    
+    /**
+     * Get the number of nested jars
+     *
+     * @return the number of nested jars
+     */
+    public int getLibraries() {
+        return libraries;
+    }
+
+    
+    /**
+     * Get the number of entries of each nested jar
+     *
+     * @return the number of entries of each nested jar
+     */
+    public int getEntriesPerLibrary() {
+        return entriesPerLibrary;
+    }
+
+    
+    /**
+     * Get the number of loose class entries
+     *
+     * @return the number of loose class entries
+     */
+    public int getClasses() {
+        return classes;
+    }
+
+    
+    /**
+     * Get the average size of an entry
+     *
+     * @return the average size of an entry in bytes
+     */
+    public int getEntrySize() {
+        return entrySize;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return name + " (" + libraries + " libraries with " + entriesPerLibrary + " entries, " + classes + " classes)";
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * StartupBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+
+/**
+ * End to end startup benchmark of jer. It generates fat jars of different shapes and runs the jer main of each jar with 
+ * a cold and a warm extraction cache, the warm start runs with and without the launcher fast path. It measures the wall 
+ * time until the child reaches its main, the wall time until jer ends, the peak resident set size and the written bytes. 
+ * The result is stored as JSON and compared with a baseline.
+ * 
+ * <p>Usage: StartupBenchmark &lt;jer jar&gt; &lt;output path&gt; &lt;baseline file&gt; [--update-baseline]</p>
+ *
+ * @author patrick
+ */
+public final class StartupBenchmark {
+    private static final String UPDATE_BASELINE = "--update-baseline";
+    private static final long PROCESS_TIMEOUT = 300;
+    private static final long SAMPLE_INTERVAL = 5;
+    private static final List<JarShape> JAR_SHAPES = Arrays.asList(new JarShape("small", 5, 200, 100, 2048),
+                                                                   new JarShape("medium", 50, 500, 2000, 2048),
+                                                                   new JarShape("large", 200, 500, 20000, 2048));
+    private File jerJar;
+    private File outputPath;
+    private int iterations;
+    private List<String> jerArguments;
+
+    
+    /**
+     * Constructor for StartupBenchmark
+     *
+     * @param jerJar the jer jar
+     * @param outputPath the output path
+     */
+    private StartupBenchmark(File jerJar, File outputPath) {
+        this.jerJar = jerJar;
+        this.outputPath = outputPath;
+        this.iterations = Integer.getInteger("jer.benchmark.iterations", 5);
+        this.jerArguments = new ArrayList<>();
+        String arguments = System.getProperty("jer.benchmark.jerArgs", "").trim();
+        if (!arguments.isEmpty()) {
+            jerArguments.addAll(Arrays.asList(arguments.split("\\s+")));
+        }
+    }
+
+    
+    /**
+     * The main
+     *
+     * @param args the arguments
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case the benchmark was interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: StartupBenchmark <jer jar> <output path> <baseline file> [" + UPDATE_BASELINE + "]");
+            System.exit(2);
+        }
+        
+        File baselineFile = new File(args[2]).getAbsoluteFile();
+        boolean updateBaseline = args.length > 3 && UPDATE_BASELINE.equals(args[3]);
+        double threshold = Double.parseDouble(System.getProperty("jer.benchmark.threshold", "0.1"));
+        List<String> shapes = Arrays.asList(System.getProperty("jer.benchmark.shapes", "small,medium,large").split(","));
+        
+        StartupBenchmark startupBenchmark = new StartupBenchmark(new File(args[0]), new File(args[1]));
+        BenchmarkResult result = new BenchmarkResult();
+        for (JarShape jarShape : JAR_SHAPES) {
+            if (shapes.contains(jarShape.getName())) {
+                startupBenchmark.run(jarShape, result);
+            }
+        }
+
+        File resultFile = new File(args[1], "result.json");
+        Files.write(resultFile.toPath(), result.toJson().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Result [" + resultFile + "]:\n" + result.toJson());
+
+        if (updateBaseline) {
+            baselineFile.getParentFile().mkdirs();
+            Files.write(baselineFile.toPath(), result.toJson().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Updated baseline [" + baselineFile + "].");
+            return;
+        }
+        
+        if (!baselineFile.exists()) {
+            // without a baseline a regression would pass unnoticed
+            System.err.println("No baseline [" + baselineFile + "] found! Record it on the reference machine with " + UPDATE_BASELINE 
+                               + " (gradlew benchmark -PupdateBaseline) and commit it.");
+            System.exit(1);
+        }
+        
+        BenchmarkResult baseline = BenchmarkResult.fromJson(new String(Files.readAllBytes(baselineFile.toPath()), StandardCharsets.UTF_8));
+        List<String> regressions = result.compare(baseline, threshold);
+        if (!regressions.isEmpty()) {
+            System.out.println("Regressions above " + Math.round(threshold * 100) + "%:");
+            regressions.forEach(regression -> System.out.println("    " + regression));
+            System.exit(1);
+        }
+        System.out.println("No regressions above " + Math.round(threshold * 100) + "%.");
+    }
+
+    
+    /**
+     * Run the cold and warm scenario of a jar shape
+     *
+     * @param jarShape the jar shape
+     * @param result the result
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case the benchmark was interrupted
+     */
+    private void run(JarShape jarShape, BenchmarkResult result) throws IOException, InterruptedException {
+        System.out.println("Benchmark " + jarShape + "...");
+        File fatJar = new FatJarGenerator(jerJar).generate(jarShape, new File(outputPath, "jars"));
+        File cachePath = new File(outputPath, "cache");
+        
+        List<Measurement> cold = new ArrayList<>();
+        for (int i = 0; i < iterations; i++) {
+            File coldCachePath = new File(cachePath, jarShape.getName() + "-cold");
+            delete(coldCachePath.toPath());
+            cold.add(measure(fatJar, coldCachePath, jerArguments));
+        }
+        add(result, jarShape.getName() + "-cold", cold);
+
+        // the warm start takes the fast path of the launcher, the slow path shows the launcher overhead
+        List<String> slowPathArguments = new ArrayList<>(jerArguments);
+        slowPathArguments.add("--noFastPath");
+        runWarm(jarShape.getName() + "-warm", fatJar, new File(cachePath, jarShape.getName() + "-warm"), jerArguments, result);
+        runWarm(jarShape.getName() + "-warm-slowpath", fatJar, new File(cachePath, jarShape.getName() + "-warm-slowpath"), slowPathArguments, result);
+    }
+
+    
+    /**
+     * Run the warm scenario, the first run fills the extraction cache
+     *
+     * @param scenario the scenario
+     * @param fatJar the fat jar
+     * @param warmCachePath the extraction cache path
+     * @param arguments the jer arguments
+     * @param result the result
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case the benchmark was interrupted
+     */
+    private void runWarm(String scenario, File fatJar, File warmCachePath, List<String> arguments, BenchmarkResult result) throws IOException, InterruptedException {
+        delete(warmCachePath.toPath());
+        measure(fatJar, warmCachePath, arguments);
+        List<Measurement> warm = new ArrayList<>();
+        for (int i = 0; i < iterations; i++) {
+            warm.add(measure(fatJar, warmCachePath, arguments));
+        }
+        add(result, scenario, warm);
+    }
+
+    
+    /**
+     * Run jer once and measure it
+     *
+     * @param fatJar the fat jar
+     * @param cachePath the extraction cache path
+     * @param arguments the jer arguments
+     * @return the measurement
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case the benchmark was interrupted
+     */
+    private Measurement measure(File fatJar, File cachePath, List<String> arguments) throws IOException, InterruptedException {
+        // the ready file is stable per cache path, the launch arguments of repeated runs must not change
+        File readyFile = new File(outputPath, cachePath.getName() + ".ready");
+        Files.deleteIfExists(readyFile.toPath());
+        cachePath.mkdirs();
+        
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-D" + BenchmarkApp.READY_FILE_PROPERTY + "=" + readyFile.getAbsolutePath());
+        command.add("-jar");
+        command.add(fatJar.getAbsolutePath());
+        command.addAll(Arrays.asList("-rf", FatJarGenerator.APP_JAR, "-d", cachePath.getAbsolutePath()));
+        command.addAll(arguments);
+        
+        long bytesBefore = size(cachePath.toPath());
+        Instant invoked = Instant.now();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                                                     .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(outputPath, "jer.log")))
+                                                     .start();
+        long jerPeakResidentSetSize = -1;
+        while (!process.waitFor(SAMPLE_INTERVAL, TimeUnit.MILLISECONDS)) {
+            jerPeakResidentSetSize = Math.max(jerPeakResidentSetSize, BenchmarkApp.readPeakResidentSetSize(process.pid()));
+            if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(PROCESS_TIMEOUT)) {
+                process.destroyForcibly();
+                throw new IOException("The jer process of [" + fatJar + "] did not end within " + PROCESS_TIMEOUT + "s!");
+            }
+        }
+        
+        Measurement measurement = new Measurement();
+        measurement.totalNanos = System.nanoTime() - start;
+        if (!readyFile.exists()) {
+            throw new IOException("The child of [" + fatJar + "] did not reach its main (exit code " + process.exitValue() + "), see [" + new File(outputPath, "jer.log") + "]!");
+        }
+        
+        List<String> lines = Files.readAllLines(readyFile.toPath(), StandardCharsets.UTF_8);
+        measurement.timeToMainNanos = Duration.between(invoked, Instant.parse(lines.get(0))).toNanos();
+        measurement.childPeakResidentSetSize = Long.parseLong(lines.get(1));
+        measurement.jerPeakResidentSetSize = jerPeakResidentSetSize;
+        measurement.bytesWritten = size(cachePath.toPath()) - bytesBefore;
+        Files.deleteIfExists(readyFile.toPath());
+        return measurement;
+    }
+
+    
+    /**
+     * Add the metrics of the measurements
+     *
+     * @param result the result
+     * @param scenario the scenario
+     * @param measurements the measurements
+     */
+    private void add(BenchmarkResult result, String scenario, List<Measurement> measurements) {
+        result.add(scenario, "timeToMainMillis", median(measurements, m -> m.timeToMainNanos) / 1_000_000.0);
+        result.add(scenario, "totalMillis", median(measurements, m -> m.totalNanos) / 1_000_000.0);
+        result.add(scenario, "jerPeakRssKb", measurements.stream().mapToLong(m -> m.jerPeakResidentSetSize).max().orElse(-1));
+        result.add(scenario, "childPeakRssKb", measurements.stream().mapToLong(m -> m.childPeakResidentSetSize).max().orElse(-1));
+        result.add(scenario, "bytesWritten", median(measurements, m -> m.bytesWritten));
+        System.out.println("    " + scenario + ": " + result.getMetrics(scenario));
+    }
+
+    
+    /**
+     * Get the median of a metric
+     *
+     * @param measurements the measurements
+     * @param metric the metric
+     * @return the median
+     */
+    private long median(List<Measurement> measurements, ToLongFunction<Measurement> metric) {
+        long[] values = measurements.stream().mapToLong(metric).sorted().toArray();
+        if (values.length == 0) {
+            return 0;
+        }
+        return values[values.length / 2];
+    }
+
+    
+    /**
+     * Get the size of all files of a path, a file with several hard links, e.g. a repacked jar and its cache entry, is counted once
+     *
+     * @param path the path
+     * @return the size in bytes
+     * @throws IOException In case of an I/O issue
+     */
+    private long size(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        
+        long size = 0;
+        Set<Object> fileKeys = new HashSet<>();
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.fileKey() == null || fileKeys.add(attributes.fileKey())) {
+                    size += attributes.size();
+                }
+            }
+        }
+        return size;
+    }
+
+    
+    /**
+     * Delete a path
+     *
+     * @param path the path
+     * @throws IOException In case of an I/O issue
+     */
+    private void delete(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    
+    /**
+     * The measurement of a single run
+     */
+    private static class Measurement {
+        private long timeToMainNanos;
+        private long totalNanos;
+        private long jerPeakResidentSetSize;
+        private long childPeakResidentSetSize;
+        private long bytesWritten;
+    }
+}
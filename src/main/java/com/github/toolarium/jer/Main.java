@@ -6,14 +6,36 @@
 package com.github.toolarium.jer;
 
 
+import com.github.toolarium.jer.archive.DurabilityMode;
+import com.github.toolarium.jer.archive.ExtractionCleaner;
+import com.github.toolarium.jer.archive.ExtractionUsage;
 import com.github.toolarium.jer.archive.JarExtractor;
+import com.github.toolarium.jer.archive.MultiReleaseMode;
+import com.github.toolarium.jer.archive.NativeLibraryFilter;
+import com.github.toolarium.jer.archive.VerificationPolicy;
+import com.github.toolarium.jer.batch.BatchExtraction;
+import com.github.toolarium.jer.batch.BatchResult;
 import com.github.toolarium.jer.info.ProcessStartInformation;
-import com.github.toolarium.system.command.IAsynchronousProcess;
-import com.github.toolarium.system.command.ISystemCommandExecuter;
-import com.github.toolarium.system.command.SystemCommandExecuterBuilder;
+import com.github.toolarium.jer.launch.LaunchRecord;
+import com.github.toolarium.jer.launch.Launcher;
+import com.github.toolarium.jer.readiness.ChildProcessLauncher;
+import com.github.toolarium.jer.readiness.FileReadinessProbe;
+import com.github.toolarium.jer.readiness.IReadinessProbe;
+import com.github.toolarium.jer.readiness.OutputPatternReadinessProbe;
+import com.github.toolarium.jer.readiness.PortReadinessProbe;
+import com.github.toolarium.jer.readiness.StartupMeasurement;
+import com.github.toolarium.jer.readiness.StartupStatistic;
+import com.github.toolarium.jer.util.IoThrottle;
+import com.github.toolarium.jer.watch.JarWatcher;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import org.fusesource.jansi.AnsiConsole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +44,7 @@ import picocli.CommandLine.Command;
 import picocli.CommandLine.Help;
 import picocli.CommandLine.Help.ColorScheme;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
 
 
 /**
@@ -32,6 +55,7 @@ import picocli.CommandLine.Option;
 @Command(name = "jer", mixinStandardHelpOptions = true, version = "jer v" + Version.VERSION, description = "Java extract runner.")
 public final class Main implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(Main.class);
+    private static final int EXTRACTION_ATTEMPTS = 3;
     @Option(names = { "-o", "--overwrite" }, paramLabel = "overwrite", defaultValue = "false", description = "Overwrite already existing extractions.")
     private boolean overwrite;
     @Option(names = { "-d", "--destination" }, paramLabel = "destination", description = "The destination directory, by default the system temp.")
@@ -44,10 +68,69 @@ public final class Main implements Runnable {
     private String jarResource;
     @Option(names = { "-rp", "--jarResourcePath" }, paramLabel = "resource", description = "Defines the subpath in the jar to extract, by default everthing will be extracted.")
     private String jarResourcePath;
+    @Option(names = { "-vp", "--verificationPolicy" }, paramLabel = "policy", defaultValue = "ALWAYS", description = "Defines the jar signature verification: ${COMPLETION-CANDIDATES}, by default ALWAYS.")
+    private VerificationPolicy verificationPolicy;
+    @Option(names = { "-dm", "--durability" }, paramLabel = "mode", defaultValue = "NONE", description = "Defines how the extracted files are synchronized to the disk: ${COMPLETION-CANDIDATES}, by default NONE.")
+    private DurabilityMode durabilityMode;
+    @Option(names = { "-c", "--closure" }, defaultValue = "false", description = "Extracts only the dependency closure of the jar resource, resolved by its manifest Class-Path and index list.")
+    private boolean closure;
+    @Option(names = { "-ci", "--closureInclude" }, paramLabel = "path", split = ",", description = "Resource paths which are extracted in addition to the dependency closure.")
+    private List<String> closureIncludePaths;
+    @Option(names = { "-cpi", "--classpathIndex" }, paramLabel = "entry", description = "A classpath index file inside the jar, e.g. BOOT-INF/classpath.idx, which is added to the dependency closure.")
+    private String classpathIndex;
+    @Option(names = { "-mr", "--multiRelease" }, paramLabel = "mode", defaultValue = "OFF", description = "Defines how versioned entries of a multi-release jar are extracted: ${COMPLETION-CANDIDATES}, by default OFF.")
+    private MultiReleaseMode multiReleaseMode;
+    @Option(names = { "-tv", "--targetJavaVersion" }, paramLabel = "version", description = "The feature version of the java runtime which runs the child, by default the current version.")
+    private Integer targetJavaVersion;
+    @Option(names = { "-rs", "--repackStored" }, defaultValue = "false", description = "Repacks the extracted nested jars uncompressed, the child reads the classes without inflating them.")
+    private boolean repackStored;
+    @Option(names = { "-rpa", "--readyPattern" }, paramLabel = "regex", description = "The child is ready when an output line matches the regular expression.")
+    private String readyPattern;
+    @Option(names = { "-rpo", "--readyPort" }, paramLabel = "port", description = "The child is ready when the local TCP port accepts connections.")
+    private Integer readyPort;
+    @Option(names = { "-rfi", "--readyFile" }, paramLabel = "file", description = "The child is ready when the file exists.")
+    private String readyFile;
+    @Option(names = { "-rt", "--readyTimeout" }, paramLabel = "seconds", defaultValue = "60", description = "The timeout in seconds to wait until the child is ready, by default 60.")
+    private long readyTimeout;
+    @Option(names = { "-r", "--repeat" }, paramLabel = "count", defaultValue = "1", description = "Repeats the extraction and start until the child is ready and reports the percentiles of the time to ready.")
+    private int repeat;
+    @Option(names = { "-w", "--watch" }, paramLabel = "directory", split = ",", description = "Watches the drop directories and pre-extracts new or replaced jars in the background.")
+    private List<String> watchDirectories;
+    @Option(names = { "-wq", "--watchQuietPeriod" }, paramLabel = "milliseconds", defaultValue = "2000", description = "The time a watched jar must not change before it is extracted, by default 2000.")
+    private long watchQuietPeriod;
+    @Option(names = { "-tb", "--throttleBytes" }, paramLabel = "bytes", defaultValue = "0", description = "Limits the written bytes per second of all extraction workers, by default 0 (unlimited).")
+    private long throttleBytes;
+    @Option(names = { "-tf", "--throttleFiles" }, paramLabel = "files", defaultValue = "0", description = "Limits the created files per second of all extraction workers, by default 0 (unlimited).")
+    private long throttleFiles;
+    @Option(names = { "-ta", "--throttleAdaptive" }, defaultValue = "false", description = "Raises the byte limit step by step as long as the sampled sync latency of the written files stays low.")
+    private boolean throttleAdaptive;
+    @Option(names = { "-btb", "--backgroundThrottleBytes" }, paramLabel = "bytes", description = "Limits the written bytes per second of the background jobs, by default a quarter of the throttle bytes.")
+    private Long backgroundThrottleBytes;
+    @Option(names = { "-btf", "--backgroundThrottleFiles" }, paramLabel = "files", description = "Limits the created or deleted files per second of the background jobs, by default a quarter of the throttle files.")
+    private Long backgroundThrottleFiles;
+    @Option(names = { "-np", "--nativePruning" }, defaultValue = "false", description = "Skips the native libraries of foreign platforms, e.g. META-INF/native/* or natives/<os>-<arch>.")
+    private boolean nativePruning;
+    @Option(names = { "-no", "--nativeOs" }, paramLabel = "os", description = "The operating system of the native libraries to keep, by default the current.")
+    private String nativeOs;
+    @Option(names = { "-na", "--nativeArch" }, paramLabel = "arch", description = "The architecture of the native libraries to keep, by default the current.")
+    private String nativeArch;
+    @Option(names = { "-nr", "--nativeRule" }, paramLabel = "regex", description = "An additional pruning rule, a regular expression on the entry name with the named groups os and arch or platform.")
+    private List<String> nativeRules;
+    @Option(names = { "-b", "--batch" }, paramLabel = "path", split = ",", description = "Extracts the jars or the jars of the directories in one invocation, they share one work-stealing pool.")
+    private List<String> batchPaths;
+    @Option(names = { "-bp", "--batchParallelism" }, paramLabel = "workers", description = "The number of workers of the batch extraction, by default the number of processors.")
+    private Integer batchParallelism;
+    @Option(names = { "-nfp", "--noFastPath" }, defaultValue = "false", description = "Writes no launch record, the next start with the same arguments takes the full path.")
+    private boolean noFastPath;
+    @Parameters(paramLabel = "arguments", description = "The arguments of the jar resource.")
+    private List<String> arguments;
     private ColorScheme colorSchema = Help.defaultColorScheme(Help.Ansi.AUTO);
     private ProcessStartInformation processStartInformation;
     private String jarFilename;
     private JarExtractor jarExtractor;
+    private IoThrottle ioThrottle;
+    private IoThrottle backgroundIoThrottle;
+    private int exitCode;
 
     
     /**
@@ -59,6 +142,7 @@ public final class Main implements Runnable {
         processStartInformation = new ProcessStartInformation(args);
         jarFilename = getJarFileName();
         jarExtractor = new JarExtractor();
+        exitCode = 0;
     }
 
     
@@ -82,6 +166,10 @@ public final class Main implements Runnable {
         
         // try to uninstall jansi
         AnsiConsole.systemUninstall();
+        
+        if (main.exitCode != 0) {
+            System.exit(main.exitCode); // CHECKSTYLE IGNORE THIS LINE
+        }
     }
 
     
@@ -89,6 +177,17 @@ public final class Main implements Runnable {
      * @see java.lang.Runnable#run()
      */
     public void run() {
+        createIoThrottles();
+        if (watchDirectories != null && !watchDirectories.isEmpty()) {
+            runWatcher();
+            return;
+        }
+        
+        if (batchPaths != null && !batchPaths.isEmpty()) {
+            runBatch();
+            return;
+        }
+        
         if (jarFilename == null || jarFilename.isBlank()) {
             LOG.error("Could not detect the jar file name, ending.");
             return;
@@ -98,28 +197,311 @@ public final class Main implements Runnable {
             return;
         }
         
+        if (arguments != null) {
+            processStartInformation.setArguments(arguments);
+        } else {
+            processStartInformation.setArguments(new ArrayList<>());
+        }
+        
         try {
-            File desitionationFile = jarExtractor.extract(destination, jarFilename, jarResourcePath, overwrite);
-            LOG.info("Start command: " + processStartInformation.getCommandLine(jarResource, false, false, false, true));
-            String command = processStartInformation.getCommandLine(jarResource, false, false, false, false);      
-            ISystemCommandExecuter executer = SystemCommandExecuterBuilder.create()
-                                                                .workingPath(desitionationFile.getName())
-                                                                .addToCommand(command)
-                                                                .build();
-            
-            IAsynchronousProcess process = executer.runAsynchronous();
+            configure(jarExtractor);
             
-            process.waitFor();
+            List<IReadinessProbe> readinessProbes = createReadinessProbes();
+            if (!readinessProbes.isEmpty() || repeat > 1) {
+                runMeasured(readinessProbes);
+                return;
+            }
             
+            // the extraction is used until the command ends, a superseded extraction is not removed in between
+            try (ExtractionUsage extractionUsage = extractAndUse()) {
+                File desitionationFile = extractionUsage.getExtraction();
+                writeLaunchRecord(desitionationFile);
+                LOG.info("Start command: " + processStartInformation.getCommandLine(jarResource, false, false, false, true));
+                
+                // the same command as in the launch record, the exit code of the command is the exit code of jer
+                List<String> command = processStartInformation.getCommandLineArguments(jarResource);
+                Process process = new ProcessBuilder(command).directory(desitionationFile).inheritIO().start();
+                Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+                exitCode = process.waitFor();
+            }
         } catch (IllegalAccessException e) {
+            exitCode = 1;
             LOG.error("Can not access to [" + jarFilename + "]!", e);
         } catch (Exception e) {
+            exitCode = 1;
             jarExtractor.cleanUp();
             LOG.error("Could not extract archive: " + e.getMessage(), e);
         }
     }
     
     
+    /**
+     * Watch the drop directories and pre-extract new jars until the process is stopped
+     */
+    private void runWatcher() {
+        List<File> directories = new ArrayList<>();
+        for (String watchDirectory : watchDirectories) {
+            directories.add(new File(watchDirectory));
+        }
+        
+        // the pre-extraction is a background job, only the background throttle limits it
+        if (backgroundIoThrottle == null) {
+            LOG.info("The pre-extraction is not throttled, set the background throttle to limit it.");
+        }
+        
+        Supplier<JarExtractor> jarExtractorSupplier = () -> {
+            JarExtractor extractor = configure(new JarExtractor());
+            extractor.setIoThrottle(backgroundIoThrottle);
+            return extractor;
+        };
+        
+        JarWatcher jarWatcher = new JarWatcher(directories, destination, jarResourcePath, jarExtractorSupplier, watchQuietPeriod);
+        try {
+            jarWatcher.watch();
+        } catch (IOException e) {
+            LOG.error("Could not watch " + watchDirectories + ": " + e.getMessage(), e);
+        }
+    }
+
+    
+    /**
+     * Extract the jars of the batch in one shared pool, the exit code is set if any jar failed
+     */
+    private void runBatch() {
+        List<File> paths = new ArrayList<>();
+        for (String batchPath : batchPaths) {
+            paths.add(new File(batchPath));
+        }
+        
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (batchParallelism != null && batchParallelism > 0) {
+            parallelism = batchParallelism;
+        }
+        
+        ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            List<BatchResult> results = new BatchExtraction(paths, destination, jarResourcePath, overwrite, () -> configure(new JarExtractor()), forkJoinPool).extract();
+            
+            int failed = 0;
+            for (BatchResult result : results) {
+                if (!result.isSuccess()) {
+                    failed++;
+                }
+                LOG.info(result.toString());
+            }
+            
+            LOG.info("Extracted " + (results.size() - failed) + " of " + results.size() + " jars in " + Duration.ofNanos(System.nanoTime() - start).toMillis() + "ms, " + failed + " failed.");
+            if (failed > 0 || results.isEmpty()) {
+                exitCode = 1;
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    
+    /**
+     * Extract the jar and use the extraction. The extraction is checked after it is locked, an extraction which was removed 
+     * in between, e.g. by the watcher, is extracted again.
+     *
+     * @return the usage of the complete extraction, it has to be closed when the command ends
+     * @throws IllegalAccessException In case the file can not be accessed
+     * @throws IOException In case of an I/O issue
+     */
+    private ExtractionUsage extractAndUse() throws IllegalAccessException, IOException {
+        for (int i = 0; i < EXTRACTION_ATTEMPTS; i++) {
+            File desitionationFile = jarExtractor.extract(destination, jarFilename, jarResourcePath, overwrite);
+            ExtractionUsage extractionUsage = ExtractionUsage.use(desitionationFile);
+            if (new File(desitionationFile.getPath() + JarExtractor.COMPLETE_SUFFIX).exists()) {
+                return extractionUsage;
+            }
+            
+            extractionUsage.close();
+            LOG.debug("The extraction [" + desitionationFile + "] was removed before it was used, extract it again.");
+        }
+        throw new IOException("The extraction of [" + jarFilename + "] was removed " + EXTRACTION_ATTEMPTS + " times before it was used!");
+    }
+
+    
+    /**
+     * Write the launch record, the next start with the same arguments takes the fast path of the {@link Launcher}
+     *
+     * @param desitionationFile the extraction
+     */
+    private void writeLaunchRecord(File desitionationFile) {
+        List<String> launchArguments = LaunchRecord.getCurrentLaunchArguments();
+        File jarFile = LaunchRecord.getRunningJarFile();
+        if (noFastPath || overwrite || launchArguments == null || jarFile == null) {
+            return;
+        }
+        
+        try {
+            File recordFile = LaunchRecord.getRecordFile(desitionationFile.getParentFile(), jarFile, launchArguments);
+            new LaunchRecord(jarFile, desitionationFile, launchArguments, processStartInformation.getCommandLineArguments(jarResource)).write(recordFile);
+            LOG.debug("Wrote launch record [" + recordFile + "].");
+        } catch (IOException e) {
+            LOG.warn("Could not write launch record: " + e.getMessage());
+        }
+    }
+
+    
+    /**
+     * Create the throttles of the extraction and the background jobs, they are shared by all extractors
+     */
+    private void createIoThrottles() {
+        ioThrottle = null;
+        IoThrottle throttle = new IoThrottle("extraction", throttleBytes, throttleFiles, throttleAdaptive);
+        
+        // without durability no sync is forced to sample the latency
+        throttle.setWriteLatency(DurabilityMode.NONE.equals(durabilityMode));
+        if (throttle.isLimited()) {
+            ioThrottle = throttle;
+            LOG.debug("Throttle " + ioThrottle + ".");
+        }
+        
+        long backgroundBytes = throttleBytes / 4;
+        if (backgroundThrottleBytes != null) {
+            backgroundBytes = backgroundThrottleBytes;
+        }
+        long backgroundFiles = throttleFiles / 4;
+        if (backgroundThrottleFiles != null) {
+            backgroundFiles = backgroundThrottleFiles;
+        }
+        
+        backgroundIoThrottle = null;
+        throttle = new IoThrottle("background", backgroundBytes, backgroundFiles, throttleAdaptive);
+        
+        // the background jobs never sample a sync
+        throttle.setWriteLatency(true);
+        if (throttle.isLimited()) {
+            backgroundIoThrottle = throttle;
+            LOG.debug("Throttle " + backgroundIoThrottle + ".");
+        }
+        ExtractionCleaner.getInstance().setIoThrottle(backgroundIoThrottle);
+    }
+
+    
+    /**
+     * Configure a jar extractor by the options
+     *
+     * @param extractor the jar extractor
+     * @return the configured jar extractor
+     */
+    private JarExtractor configure(JarExtractor extractor) {
+        extractor.setVerificationPolicy(verificationPolicy);
+        extractor.setDurabilityMode(durabilityMode);
+        extractor.setMultiReleaseMode(multiReleaseMode);
+        extractor.setRepackNestedJars(repackStored);
+        extractor.setIoThrottle(ioThrottle);
+        extractor.setBackgroundIoThrottle(backgroundIoThrottle);
+        if (closure) {
+            extractor.setClosureResource(jarResource);
+            extractor.setClasspathIndex(classpathIndex);
+            extractor.setClosureIncludePaths(closureIncludePaths);
+        }
+        
+        if (targetJavaVersion != null) {
+            extractor.setTargetJavaVersion(targetJavaVersion);
+        }
+        
+        if (nativePruning) {
+            String os = System.getProperty("os.name");
+            if (nativeOs != null) {
+                os = nativeOs;
+            }
+            String arch = System.getProperty("os.arch");
+            if (nativeArch != null) {
+                arch = nativeArch;
+            }
+            
+            NativeLibraryFilter nativeLibraryFilter = new NativeLibraryFilter(os, arch);
+            if (nativeRules != null) {
+                for (String nativeRule : nativeRules) {
+                    nativeLibraryFilter.addRule(nativeRule);
+                }
+            }
+            extractor.setNativeLibraryFilter(nativeLibraryFilter);
+        }
+        return extractor;
+    }
+
+    
+    /**
+     * Extract and start the child until it is ready, the time to ready is measured.
+     *
+     * @param readinessProbes the readiness probes
+     * @throws IllegalAccessException In case the file can not be accessed
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case the waiting was interrupted
+     */
+    private void runMeasured(List<IReadinessProbe> readinessProbes) throws IllegalAccessException, IOException, InterruptedException {
+        ChildProcessLauncher childProcessLauncher = new ChildProcessLauncher(readinessProbes, Duration.ofSeconds(readyTimeout).toMillis());
+        List<String> command = processStartInformation.getCommandLineArguments(jarResource);
+        LOG.info("Start command: " + processStartInformation.getCommandLine(jarResource, false, false, false, true));
+        
+        // the repeated runs start from the same launcher, each run includes its time
+        long launcherNanos = Duration.between(processStartInformation.getStartupTime(), Instant.now()).toNanos();
+        StartupStatistic startupStatistic = new StartupStatistic();
+        for (int i = 0; i < Math.max(1, repeat); i++) {
+            StartupMeasurement measurement = new StartupMeasurement();
+            measurement.setLauncherNanos(launcherNanos);
+            
+            long start = System.nanoTime();
+            try (ExtractionUsage extractionUsage = extractAndUse()) {
+                measurement.setExtractionNanos(System.nanoTime() - start);
+                Process process;
+                try {
+                    process = childProcessLauncher.start(command, extractionUsage.getExtraction(), measurement);
+                } catch (IOException e) {
+                    exitCode = 1;
+                    LOG.error("Could not start [" + jarResource + "]: " + e.getMessage());
+                    return;
+                }
+                
+                if (repackStored) {
+                    LOG.info("Ready after " + measurement + ", nested jars " + jarExtractor.getRepackStatistic());
+                } else {
+                    LOG.info("Ready after " + measurement);
+                }
+                startupStatistic.add(measurement);
+                if (repeat > 1) {
+                    process.destroy();
+                    childProcessLauncher.waitFor(process);
+                } else {
+                    exitCode = childProcessLauncher.waitFor(process);
+                }
+            }
+        }
+        
+        if (repeat > 1) {
+            LOG.info("Time to ready of " + startupStatistic);
+        }
+    }
+
+    
+    /**
+     * Create the configured readiness probes
+     *
+     * @return the readiness probes
+     */
+    private List<IReadinessProbe> createReadinessProbes() {
+        List<IReadinessProbe> readinessProbes = new ArrayList<>();
+        if (readyPattern != null && !readyPattern.isBlank()) {
+            readinessProbes.add(new OutputPatternReadinessProbe(readyPattern));
+        }
+        
+        if (readyPort != null) {
+            readinessProbes.add(new PortReadinessProbe(readyPort));
+        }
+        
+        if (readyFile != null && !readyFile.isBlank()) {
+            readinessProbes.add(new FileReadinessProbe(new File(readyFile)));
+        }
+        return readinessProbes;
+    }
+    
+    
     /**
      * Get the jar file name
      *
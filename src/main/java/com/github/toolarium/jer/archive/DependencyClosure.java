@@ -0,0 +1,288 @@
+/*
+ * DependencyClosure.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Resolves the dependency closure of a jar resource inside a jar. Starting from the jar resource the manifest 
+ * <code>Class-Path</code> and the <code>META-INF/INDEX.LIST</code> of every nested jar are followed transitively. 
+ * Optional a classpath index file (e.g. <code>BOOT-INF/classpath.idx</code>) and explicit resource paths are added.
+ * 
+ * @author patrick
+ */
+public class DependencyClosure {
+    private static final Logger LOG = LoggerFactory.getLogger(DependencyClosure.class);
+    private static final String META_INF = "META-INF/";
+    private static final String INDEX_LIST = "META-INF/INDEX.LIST";
+    private static final String JAR_SUFFIX = ".jar";
+    private Set<String> entries;
+    private List<String> includePaths;
+    private List<String> directories;
+
+    
+    /**
+     * Constructor for DependencyClosure
+     *
+     * @param jar the jar file
+     * @param jarResource the jar resource to start
+     * @param classpathIndex the classpath index entry or null
+     * @param includePaths the explicit resource paths to include or null
+     * @throws IOException In case of an I/O issue
+     */
+    public DependencyClosure(JarFile jar, String jarResource, String classpathIndex, List<String> includePaths) throws IOException {
+        this.entries = new LinkedHashSet<>();
+        this.includePaths = new ArrayList<>();
+        this.directories = new ArrayList<>();
+        if (includePaths != null) {
+            for (String includePath : includePaths) {
+                if (includePath != null && !includePath.isBlank()) {
+                    this.includePaths.add(normalize(includePath.trim()));
+                }
+            }
+        }
+        
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(normalize(jarResource));
+        if (classpathIndex != null && !classpathIndex.isBlank()) {
+            queue.addAll(readClasspathIndex(jar, normalize(classpathIndex)));
+        }
+        
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (entries.contains(name)) {
+                continue;
+            }
+            
+            if (name.endsWith("/")) {
+                // a class path directory, e.g. classes/, contains all entries below it
+                entries.add(name);
+                directories.add(name);
+                continue;
+            }
+            
+            JarEntry jarEntry = jar.getJarEntry(name);
+            if (jarEntry == null) {
+                LOG.warn("The referenced resource [" + name + "] does not exist.");
+                continue;
+            }
+            
+            entries.add(name);
+            if (name.endsWith(JAR_SUFFIX)) {
+                queue.addAll(readReferences(jar, jarEntry));
+            }
+        }
+        
+        LOG.debug("Dependency closure of [" + jarResource + "]: " + entries);
+    }
+
+    
+    /**
+     * Check if an entry belongs to the closure
+     *
+     * @param name the entry name
+     * @return true if the entry belongs to the closure
+     */
+    public boolean contains(String name) {
+        if (entries.contains(name)) {
+            return true;
+        }
+        
+        for (String includePath : includePaths) {
+            if (name.startsWith(includePath)) {
+                return true;
+            }
+        }
+        
+        for (String directory : directories) {
+            if (name.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    
+    /**
+     * Get the resolved entries
+     *
+     * @return the resolved entries
+     */
+    public Set<String> getEntries() {
+        return entries;
+    }
+
+    
+    /**
+     * Read the references of a nested jar from its manifest class path and its index list
+     *
+     * @param jar the jar file
+     * @param jarEntry the nested jar
+     * @return the references as entry names of the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private List<String> readReferences(JarFile jar, JarEntry jarEntry) throws IOException {
+        List<String> references = new ArrayList<>();
+        try (JarInputStream jis = new JarInputStream(jar.getInputStream(jarEntry))) {
+            Manifest manifest = jis.getManifest();
+            if (manifest != null) {
+                String classPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+                if (classPath != null) {
+                    for (String reference : classPath.trim().split("\\s+")) {
+                        addReference(references, jarEntry.getName(), reference);
+                    }
+                }
+            }
+
+            // the index list is placed at the beginning of the jar
+            JarEntry nestedEntry = jis.getNextJarEntry();
+            while (nestedEntry != null && nestedEntry.getName().startsWith(META_INF)) {
+                if (INDEX_LIST.equals(nestedEntry.getName())) {
+                    for (String reference : readIndexList(jis)) {
+                        addReference(references, jarEntry.getName(), reference);
+                    }
+                    break;
+                }
+                nestedEntry = jis.getNextJarEntry();
+            }
+        }
+        return references;
+    }
+
+    
+    /**
+     * Read the jar names of an index list, they are the first line of each section after the header
+     *
+     * @param is the input stream
+     * @return the jar names
+     * @throws IOException In case of an I/O issue
+     */
+    private List<String> readIndexList(InputStream is) throws IOException {
+        List<String> jarNames = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        boolean header = true;
+        boolean sectionStart = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                header = false;
+                sectionStart = true;
+            } else if (!header && sectionStart) {
+                jarNames.add(line);
+                sectionStart = false;
+            }
+        }
+        return jarNames;
+    }
+
+    
+    /**
+     * Read a classpath index file, each line contains a jar entry which can be prefixed by a dash and quoted
+     *
+     * @param jar the jar file
+     * @param classpathIndex the classpath index entry
+     * @return the jar entries
+     * @throws IOException In case of an I/O issue
+     */
+    private List<String> readClasspathIndex(JarFile jar, String classpathIndex) throws IOException {
+        List<String> jarNames = new ArrayList<>();
+        JarEntry jarEntry = jar.getJarEntry(classpathIndex);
+        if (jarEntry == null) {
+            LOG.warn("The classpath index [" + classpathIndex + "] does not exist.");
+            return jarNames;
+        }
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(jar.getInputStream(jarEntry), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("-")) {
+                    line = line.substring(1).trim();
+                }
+                
+                if (line.startsWith("\"") && line.endsWith("\"") && line.length() > 1) {
+                    line = line.substring(1, line.length() - 1);
+                }
+                
+                if (!line.isEmpty()) {
+                    jarNames.add(normalize(line));
+                }
+            }
+        }
+        
+        jarNames.add(classpathIndex);
+        return jarNames;
+    }
+
+    
+    /**
+     * Add a reference, it is resolved relative to the referencing entry. Absolute references and references 
+     * which leave the jar point to the file system and are ignored.
+     *
+     * @param references the references
+     * @param name the name of the referencing entry
+     * @param reference the reference
+     */
+    private void addReference(List<String> references, String name, String reference) {
+        if (reference.isBlank()) {
+            return;
+        }
+        
+        try {
+            URI referenceUri = new URI(reference);
+            URI base = new URI(null, null, "/" + name, null);
+            URI resolved = base.resolve(referenceUri).normalize();
+            if (referenceUri.isAbsolute() || reference.startsWith("/") || resolved.getScheme() != null || resolved.getPath() == null || resolved.getPath().startsWith("/..")) {
+                LOG.debug("Ignore reference [" + reference + "] of [" + name + "] outside of the jar.");
+                return;
+            }
+            
+            references.add(normalize(resolved.getPath()));
+        } catch (URISyntaxException e) {
+            LOG.debug("Ignore invalid reference [" + reference + "] of [" + name + "].");
+        }
+    }
+
+    
+    /**
+     * Normalize an entry name
+     *
+     * @param name the name
+     * @return the normalized name
+     */
+    private String normalize(String name) {
+        String result = name.replace('\\', '/');
+        while (result.startsWith("/") || result.startsWith("./")) {
+            if (result.startsWith("/")) {
+                result = result.substring(1);
+            } else {
+                result = result.substring(2);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * DurabilityMode.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+
+/**
+ * Defines how the extracted files are synchronized to the disk before the extraction is marked as complete.
+ * 
+ * @author patrick
+ */
+public enum DurabilityMode {
+    /** The files are not synchronized, the operating system decides when they are written. */
+    NONE,
+
+    /** The files are synchronized in parallel at the end of the extraction, followed by each directory once. */
+    BATCHED,
+
+    /** Every file is synchronized immediately after it is written. */
+    STRICT;
+}
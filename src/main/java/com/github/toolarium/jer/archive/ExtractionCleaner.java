@@ -0,0 +1,256 @@
+/*
+ * ExtractionCleaner.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import com.github.toolarium.jer.util.IoThrottle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Removes extractions without blocking the caller. The extraction is renamed into a tombstone directory, which frees 
+ * the path immediately, and the tombstone is deleted in the background by a parallel walk of the file tree. Tombstones 
+ * which are left over, e.g. by a crash, are swept on the next start.
+ *
+ * @author patrick
+ */
+public final class ExtractionCleaner {
+    private static final Logger LOG = LoggerFactory.getLogger(ExtractionCleaner.class);
+    private static final String TOMBSTONE_PATH = ".jer-tombstone";
+    private ForkJoinPool forkJoinPool;
+    private Set<Path> tombstones;
+    private IoThrottle ioThrottle;
+
+    
+    /**
+     * Private class, the only instance of the singelton which will be created by accessing the holder class.
+     *
+     * @author patrick
+     */
+    private static class HOLDER {
+        static final ExtractionCleaner INSTANCE = new ExtractionCleaner();
+    }
+
+
+    /**
+     * Constructor
+     */
+    private ExtractionCleaner() {
+        forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        tombstones = ConcurrentHashMap.newKeySet();
+    }
+
+
+    /**
+     * Get the instance
+     *
+     * @return the instance
+     */
+    public static ExtractionCleaner getInstance() {
+        return HOLDER.INSTANCE;
+    }
+
+    
+    /**
+     * Set the throttle which limits the deleted files per second, the eviction is a background job and should get a lower budget
+     *
+     * @param ioThrottle the throttle or null for unlimited
+     */
+    public void setIoThrottle(IoThrottle ioThrottle) {
+        this.ioThrottle = ioThrottle;
+    }
+
+    
+    /**
+     * Remove a file or directory, it is renamed to a tombstone and deleted in the background.
+     *
+     * @param file the file or directory to remove
+     */
+    public void remove(File file) {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        
+        Path path = file.toPath();
+        Path tombstone = path.resolveSibling(TOMBSTONE_PATH).resolve(file.getName() + "-" + System.nanoTime());
+        try {
+            Files.createDirectories(tombstone.getParent());
+            Files.move(path, tombstone, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.debug("Could not rename [" + file + "] to a tombstone, delete it in place: " + e.getMessage());
+            tombstone = path;
+        }
+        
+        delete(tombstone);
+    }
+
+    
+    /**
+     * Remove an extraction together with its marker and usage files if it is not in use. The complete marker is deleted 
+     * first, the extraction is invalid before it is renamed to a tombstone.
+     *
+     * @param extraction the extraction
+     * @return true if the extraction is removed; false if it is in use
+     * @throws IOException In case of an I/O issue
+     */
+    public boolean removeExtraction(File extraction) throws IOException {
+        try (ExtractionUsage extractionUsage = ExtractionUsage.lockForRemoval(extraction)) {
+            if (extractionUsage == null) {
+                return false;
+            }
+            
+            for (String suffix : new String[] {JarExtractor.COMPLETE_SUFFIX, JarExtractor.VERIFIED_SUFFIX}) {
+                Files.deleteIfExists(Path.of(extraction.getPath() + suffix));
+            }
+            remove(extraction);
+            Files.deleteIfExists(ExtractionUsage.getUsageFile(extraction).toPath());
+            return true;
+        }
+    }
+
+    
+    /**
+     * Sweep the tombstones which are left over in the given path
+     *
+     * @param path the path which contains the extractions
+     */
+    public void sweep(File path) {
+        if (path == null) {
+            return;
+        }
+        
+        File[] leftOvers = new File(path, TOMBSTONE_PATH).listFiles();
+        if (leftOvers == null) {
+            return;
+        }
+        
+        for (File leftOver : leftOvers) {
+            LOG.debug("Sweep tombstone [" + leftOver + "].");
+            delete(leftOver.toPath());
+        }
+    }
+
+    
+    /**
+     * Wait until all started deletions are done
+     *
+     * @param timeout the timeout in milliseconds
+     * @return true if all deletions are done
+     */
+    public boolean awaitCompletion(long timeout) {
+        return forkJoinPool.awaitQuiescence(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    
+    /**
+     * Delete a tombstone in the background
+     *
+     * @param tombstone the tombstone
+     */
+    private void delete(Path tombstone) {
+        if (!tombstones.add(tombstone)) {
+            return;
+        }
+        
+        forkJoinPool.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                forkJoinPool.invoke(new DeleteAction(tombstone, ioThrottle));
+                LOG.debug("Deleted [" + tombstone + "] in " + (System.currentTimeMillis() - start) + "ms.");
+            } catch (RuntimeException e) {
+                LOG.warn("Could not delete [" + tombstone + "]: " + e.getMessage());
+            } finally {
+                tombstones.remove(tombstone);
+            }
+        });
+    }
+
+    
+    /**
+     * Deletes a directory tree, the sub directories are deleted in parallel.
+     *
+     * @author patrick
+     */
+    private static class DeleteAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Path path;
+        private final transient IoThrottle ioThrottle;
+
+        
+        /**
+         * Constructor for DeleteAction
+         *
+         * @param path the path to delete
+         * @param ioThrottle the throttle or null
+         */
+        DeleteAction(Path path, IoThrottle ioThrottle) {
+            this.path = path;
+            this.ioThrottle = ioThrottle;
+        }
+
+        
+        /**
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute() {
+            try {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    List<DeleteAction> subDirectories = new ArrayList<>();
+                    try (Stream<Path> children = Files.list(path)) {
+                        children.forEach(child -> {
+                            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                                subDirectories.add(new DeleteAction(child, ioThrottle));
+                            } else {
+                                deleteIfExists(child);
+                            }
+                        });
+                    }
+                    invokeAll(subDirectories);
+                }
+                
+                deleteIfExists(path);
+            } catch (NoSuchFileException e) {
+                // NOP, already deleted e.g. by a concurrent sweep
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        
+        /**
+         * Delete a file
+         *
+         * @param file the file
+         */
+        private void deleteIfExists(Path file) {
+            if (ioThrottle != null) {
+                ioThrottle.acquireFile();
+            }
+            
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not delete [" + file + "]: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * ExtractionTiming.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * The timing of an extraction, the durations of the phases are recorded in the order they were added.
+ * 
+ * @author patrick
+ */
+public class ExtractionTiming {
+    /** The verification phase */
+    public static final String VERIFICATION = "verification";
+
+    /** The extraction phase */
+    public static final String EXTRACTION = "extraction";
+
+    /** The repack phase */
+    public static final String REPACK = "repack";
+
+    /** The synchronization phase */
+    public static final String SYNC = "sync";
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private Map<String, Long> phases;
+    private long files;
+    private long bytes;
+    private long parallelSyncNanos;
+
+    
+    /**
+     * Constructor for ExtractionTiming
+     */
+    public ExtractionTiming() {
+        phases = new LinkedHashMap<>();
+        files = 0;
+        bytes = 0;
+        parallelSyncNanos = 0;
+    }
+
+    
+    /**
+     * Add the duration of a phase, in case the phase already exist the duration is added
+     *
+     * @param phase the phase
+     * @param durationNanos the duration in nanoseconds
+     */
+    public synchronized void add(String phase, long durationNanos) {
+        phases.merge(phase, durationNanos, Long::sum);
+    }
+
+    
+    /**
+     * Add a written file
+     *
+     * @param size the size of the file
+     */
+    public synchronized void addFile(long size) {
+        files++;
+        bytes += size;
+    }
+
+    
+    /**
+     * Add the duration of a sync which ran in parallel to other entries. The parallel syncs overlap, their sum is reported 
+     * separately and is not part of a phase.
+     *
+     * @param durationNanos the duration in nanoseconds
+     */
+    public synchronized void addParallelSync(long durationNanos) {
+        parallelSyncNanos += durationNanos;
+    }
+
+    
+    /**
+     * Get the sum of the parallel syncs
+     *
+     * @return the duration in milliseconds
+     */
+    public synchronized long getParallelSyncDuration() {
+        return parallelSyncNanos / NANOS_PER_MILLI;
+    }
+
+    
+    /**
+     * Get the duration of a phase
+     *
+     * @param phase the phase
+     * @return the duration in milliseconds
+     */
+    public synchronized long getDuration(String phase) {
+        return phases.getOrDefault(phase, 0L) / NANOS_PER_MILLI;
+    }
+
+    
+    /**
+     * Get the duration of a phase
+     *
+     * @param phase the phase
+     * @return the duration in nanoseconds
+     */
+    public synchronized long getDurationNanos(String phase) {
+        return phases.getOrDefault(phase, 0L);
+    }
+
+    
+    /**
+     * Get the total duration of all phases
+     *
+     * @return the duration in milliseconds
+     */
+    public synchronized long getTotalDuration() {
+        return phases.values().stream().mapToLong(Long::longValue).sum() / NANOS_PER_MILLI;
+    }
+
+    
+    /**
+     * Get the number of written files
+     *
+     * @return the number of written files
+     */
+    public synchronized long getFiles() {
+        return files;
+    }
+
+    
+    /**
+     * Get the number of written bytes
+     *
+     * @return the number of written bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getTotalDuration()).append("ms (");
+        for (Map.Entry<String, Long> e : phases.entrySet()) {
+            builder.append(e.getKey()).append(": ").append(e.getValue() / NANOS_PER_MILLI).append("ms, ");
+        }
+        if (parallelSyncNanos > 0) {
+            builder.append("parallel sync: ").append(parallelSyncNanos / NANOS_PER_MILLI).append("ms, ");
+        }
+        builder.append(files).append(" files, ").append(bytes).append(" bytes)");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * ExtractionUsage.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * The usage of an extraction. A launch holds a shared lock on the usage file next to the extraction as long as its command
+ * runs, the operating system releases the lock when the process ends. An extraction is only removed under an exclusive lock,
+ * the extraction of a live launch is never removed.
+ *
+ * @author patrick
+ */
+public final class ExtractionUsage implements Closeable {
+    /** The suffix of the usage file */
+    public static final String USAGE_SUFFIX = ".usage";
+    private final File extraction;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+
+    /**
+     * Constructor for ExtractionUsage
+     *
+     * @param extraction the extraction
+     * @param channel the channel of the usage file
+     * @param lock the lock
+     */
+    private ExtractionUsage(File extraction, FileChannel channel, FileLock lock) {
+        this.extraction = extraction;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    
+    /**
+     * Use an extraction, it waits while the extraction is removed
+     *
+     * @param extraction the extraction
+     * @return the usage, it has to be closed when the command ends
+     * @throws IOException In case of an I/O issue
+     */
+    public static ExtractionUsage use(File extraction) throws IOException {
+        FileChannel channel = open(extraction);
+        try {
+            return new ExtractionUsage(extraction, channel, channel.lock(0, Long.MAX_VALUE, true));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    
+    /**
+     * Lock an extraction for its removal
+     *
+     * @param extraction the extraction
+     * @return the usage which has to be held until the extraction is removed or null if the extraction is in use
+     * @throws IOException In case of an I/O issue
+     */
+    public static ExtractionUsage lockForRemoval(File extraction) throws IOException {
+        FileChannel channel = open(extraction);
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // NOP, the extraction is in use by this process
+        } finally {
+            if (lock == null) {
+                channel.close();
+            }
+        }
+
+        if (lock == null) {
+            return null;
+        }
+        return new ExtractionUsage(extraction, channel, lock);
+    }
+
+    
+    /**
+     * Get the used extraction
+     *
+     * @return the extraction
+     */
+    public File getExtraction() {
+        return extraction;
+    }
+
+    
+    /**
+     * Get the usage file of an extraction
+     *
+     * @param extraction the extraction
+     * @return the usage file
+     */
+    public static File getUsageFile(File extraction) {
+        return new File(extraction.getPath() + USAGE_SUFFIX);
+    }
+
+    
+    /**
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+
+    
+    /**
+     * Open the usage file of an extraction
+     *
+     * @param extraction the extraction
+     * @return the channel
+     * @throws IOException In case of an I/O issue
+     */
+    private static FileChannel open(File extraction) throws IOException {
+        return FileChannel.open(getUsageFile(extraction).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
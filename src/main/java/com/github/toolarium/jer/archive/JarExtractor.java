@@ -5,17 +5,24 @@
  */
 package com.github.toolarium.jer.archive;
 
+import com.github.toolarium.jer.util.FileSyncUtil;
+import com.github.toolarium.jer.util.IoThrottle;
 import com.github.toolarium.jer.util.StreamUtil;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.LinkOption;
-import java.nio.file.attribute.FileTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import org.slf4j.Logger;
@@ -28,9 +35,32 @@ import org.slf4j.LoggerFactory;
  * @author patrick
  */
 public class JarExtractor {
+    /** The suffix of the file which records a successful verification next to the extraction path */
+    public static final String VERIFIED_SUFFIX = ".verified";
+
+    /** The suffix of the file which marks a complete extraction next to the extraction path */
+    public static final String COMPLETE_SUFFIX = ".complete";
+
+    /** The path of the repack cache in the destination path, the repacked jars of the extractions are linked to it */
+    public static final String REPACK_CACHE = ".jer-repack";
+
     private static final Logger LOG = LoggerFactory.getLogger(JarExtractor.class);
     private File desitionationFile;
     private boolean createdPath;
+    private VerificationPolicy verificationPolicy;
+    private DurabilityMode durabilityMode;
+    private ExtractionTiming extractionTiming;
+    private MultiReleaseMode multiReleaseMode;
+    private int targetJavaVersion;
+    private boolean repackNestedJars;
+    private RepackStatistic repackStatistic;
+    private String closureResource;
+    private String classpathIndex;
+    private List<String> closureIncludePaths;
+    private IoThrottle ioThrottle;
+    private IoThrottle backgroundIoThrottle;
+    private ForkJoinPool forkJoinPool;
+    private NativeLibraryFilter nativeLibraryFilter;
 
     
     /**
@@ -39,7 +69,290 @@ public class JarExtractor {
     public JarExtractor() {
         desitionationFile = null;
         createdPath = false;
-        
+        verificationPolicy = VerificationPolicy.ALWAYS;
+        durabilityMode = DurabilityMode.NONE;
+        extractionTiming = new ExtractionTiming();
+        multiReleaseMode = MultiReleaseMode.OFF;
+        targetJavaVersion = Runtime.version().feature();
+        repackNestedJars = false;
+        repackStatistic = new RepackStatistic();
+        closureResource = null;
+        classpathIndex = null;
+        closureIncludePaths = new ArrayList<>();
+        ioThrottle = null;
+        backgroundIoThrottle = null;
+        forkJoinPool = null;
+        nativeLibraryFilter = null;
+    }
+
+
+    /**
+     * Get the verification policy
+     *
+     * @return the verification policy
+     */
+    public VerificationPolicy getVerificationPolicy() {
+        return verificationPolicy;
+    }
+
+
+    /**
+     * Set the verification policy
+     *
+     * @param verificationPolicy the verification policy
+     */
+    public void setVerificationPolicy(VerificationPolicy verificationPolicy) {
+        if (verificationPolicy != null) {
+            this.verificationPolicy = verificationPolicy;
+        }
+    }
+
+
+    /**
+     * Get the durability mode
+     *
+     * @return the durability mode
+     */
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+
+    /**
+     * Set the durability mode
+     *
+     * @param durabilityMode the durability mode
+     */
+    public void setDurabilityMode(DurabilityMode durabilityMode) {
+        if (durabilityMode != null) {
+            this.durabilityMode = durabilityMode;
+        }
+    }
+
+
+    /**
+     * Get the multi-release mode
+     *
+     * @return the multi-release mode
+     */
+    public MultiReleaseMode getMultiReleaseMode() {
+        return multiReleaseMode;
+    }
+
+
+    /**
+     * Set the multi-release mode
+     *
+     * @param multiReleaseMode the multi-release mode
+     */
+    public void setMultiReleaseMode(MultiReleaseMode multiReleaseMode) {
+        if (multiReleaseMode != null) {
+            this.multiReleaseMode = multiReleaseMode;
+        }
+    }
+
+
+    /**
+     * Get the feature version of the java runtime which runs the extracted content
+     *
+     * @return the target java version
+     */
+    public int getTargetJavaVersion() {
+        return targetJavaVersion;
+    }
+
+
+    /**
+     * Set the feature version of the java runtime which runs the extracted content
+     *
+     * @param targetJavaVersion the target java version
+     */
+    public void setTargetJavaVersion(int targetJavaVersion) {
+        this.targetJavaVersion = targetJavaVersion;
+    }
+
+
+    /**
+     * Check if the extracted nested jars are repacked as stored archives
+     *
+     * @return true if the nested jars are repacked
+     */
+    public boolean isRepackNestedJars() {
+        return repackNestedJars;
+    }
+
+
+    /**
+     * Set if the extracted nested jars are repacked as stored archives
+     *
+     * @param repackNestedJars true to repack the nested jars
+     */
+    public void setRepackNestedJars(boolean repackNestedJars) {
+        this.repackNestedJars = repackNestedJars;
+    }
+
+
+    /**
+     * Get the repack statistic of the last extraction
+     *
+     * @return the repack statistic
+     */
+    public RepackStatistic getRepackStatistic() {
+        return repackStatistic;
+    }
+
+
+    /**
+     * Get the jar resource from which the dependency closure is extracted
+     *
+     * @return the jar resource or null if the whole archive is extracted
+     */
+    public String getClosureResource() {
+        return closureResource;
+    }
+
+
+    /**
+     * Set the jar resource from which the dependency closure is extracted
+     *
+     * @param closureResource the jar resource or null to extract the whole archive
+     */
+    public void setClosureResource(String closureResource) {
+        this.closureResource = closureResource;
+    }
+
+
+    /**
+     * Get the classpath index entry which is added to the dependency closure
+     *
+     * @return the classpath index entry or null
+     */
+    public String getClasspathIndex() {
+        return classpathIndex;
+    }
+
+
+    /**
+     * Set the classpath index entry which is added to the dependency closure, e.g. BOOT-INF/classpath.idx
+     *
+     * @param classpathIndex the classpath index entry or null
+     */
+    public void setClasspathIndex(String classpathIndex) {
+        this.classpathIndex = classpathIndex;
+    }
+
+
+    /**
+     * Get the resource paths which are extracted in addition to the dependency closure
+     *
+     * @return the resource paths
+     */
+    public List<String> getClosureIncludePaths() {
+        return closureIncludePaths;
+    }
+
+
+    /**
+     * Set the resource paths which are extracted in addition to the dependency closure
+     *
+     * @param closureIncludePaths the resource paths
+     */
+    public void setClosureIncludePaths(List<String> closureIncludePaths) {
+        this.closureIncludePaths = new ArrayList<>();
+        if (closureIncludePaths != null) {
+            this.closureIncludePaths.addAll(closureIncludePaths);
+        }
+    }
+
+
+    /**
+     * Get the throttle which limits the writes of the extraction
+     *
+     * @return the throttle or null if the writes are not limited
+     */
+    public IoThrottle getIoThrottle() {
+        return ioThrottle;
+    }
+
+
+    /**
+     * Set the throttle which limits the writes of the extraction, it can be shared by several extractors
+     *
+     * @param ioThrottle the throttle or null for unlimited
+     */
+    public void setIoThrottle(IoThrottle ioThrottle) {
+        this.ioThrottle = ioThrottle;
+    }
+
+
+    /**
+     * Get the throttle which limits the writes of the background jobs like the repacking
+     *
+     * @return the throttle or null if the writes are not limited
+     */
+    public IoThrottle getBackgroundIoThrottle() {
+        return backgroundIoThrottle;
+    }
+
+
+    /**
+     * Set the throttle which limits the writes of the background jobs like the repacking
+     *
+     * @param backgroundIoThrottle the throttle or null for unlimited
+     */
+    public void setBackgroundIoThrottle(IoThrottle backgroundIoThrottle) {
+        this.backgroundIoThrottle = backgroundIoThrottle;
+    }
+
+
+    /**
+     * Get the pool which extracts the entries in parallel
+     *
+     * @return the pool or null if the entries are extracted sequentially
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+
+    /**
+     * Set the pool which extracts the entries in parallel, it can be shared by several extractors: an extraction which runs 
+     * inside the pool adds its entries to the work-stealing queues of the pool.
+     *
+     * @param forkJoinPool the pool or null to extract the entries sequentially
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+
+    /**
+     * Get the filter of the native libraries
+     *
+     * @return the filter or null if all native libraries are extracted
+     */
+    public NativeLibraryFilter getNativeLibraryFilter() {
+        return nativeLibraryFilter;
+    }
+
+
+    /**
+     * Set the filter of the native libraries, the native libraries of foreign platforms are not extracted
+     *
+     * @param nativeLibraryFilter the filter or null to extract all native libraries
+     */
+    public void setNativeLibraryFilter(NativeLibraryFilter nativeLibraryFilter) {
+        this.nativeLibraryFilter = nativeLibraryFilter;
+    }
+
+
+    /**
+     * Get the timing of the last extraction
+     *
+     * @return the extraction timing
+     */
+    public ExtractionTiming getExtractionTiming() {
+        return extractionTiming;
     }
     
     
@@ -56,31 +369,120 @@ public class JarExtractor {
      */
     public File extract(String destination, String filename, String jarResource, boolean overwrite) throws IllegalAccessException, IOException {
         File jarfile = validateFilename(filename);
-        JarFile jar = new JarFile(filename);
-        
+        desitionationFile = prepareDestinationPath(jarfile, destination, jarResource);
+        File completeFile = new File(desitionationFile.getPath() + COMPLETE_SUFFIX);
+        extractionTiming = new ExtractionTiming();
+        repackStatistic = new RepackStatistic();
+        ExtractionCleaner.getInstance().sweep(desitionationFile.getParentFile());
+        if (!overwrite && completeFile.exists() && desitionationFile.exists()) {
+            LOG.info(".: Already exist [" + desitionationFile + "]!");
+            return desitionationFile;
+        }
+
+        // the chunks of the jar are verified in parallel before any entry is extracted
+        long start = System.nanoTime();
+        verify(jarfile);
+        extractionTiming.add(ExtractionTiming.VERIFICATION, System.nanoTime() - start);
+
+        JarFile jar = new JarFile(jarfile, false);
         try {
-            desitionationFile = prepareDestinationPath(jarfile, destination);
-            if (!overwrite && desitionationFile.exists()) {
-                LOG.info(".: Already exist [" + desitionationFile + "]!");
-                return desitionationFile;
+            // the tree is only valid again when it was completely written
+            if (completeFile.exists() && !completeFile.delete()) {
+                throw new IOException("Could not delete [" + completeFile + "]!");
             }
+            
             createdPath = desitionationFile.mkdirs();
-
+            
+            MultiReleaseSelector multiReleaseSelector = null;
+            if (!MultiReleaseMode.OFF.equals(multiReleaseMode) && MultiReleaseSelector.isMultiRelease(jar)) {
+                multiReleaseSelector = new MultiReleaseSelector(jar, multiReleaseMode, targetJavaVersion);
+            }
+            
+            DependencyClosure dependencyClosure = null;
+            if (closureResource != null && !closureResource.isBlank()) {
+                dependencyClosure = new DependencyClosure(jar, closureResource, classpathIndex, closureIncludePaths);
+            }
+            
+            start = System.nanoTime();
+            long syncDuration = extractionTiming.getDurationNanos(ExtractionTiming.SYNC);
+            List<JarEntry> fileEntries = new ArrayList<>();
+            List<File> writtenFiles = new ArrayList<>();
+            Set<File> directories = new LinkedHashSet<>();
+            directories.add(desitionationFile);
+            
             Enumeration<JarEntry> enumEntries = jar.entries();
             while (enumEntries.hasMoreElements()) {
                 JarEntry jarFileEntry = enumEntries.nextElement();
                 
-                if (!filterFile(jarResource, jarFileEntry)) {
-                    File f = new File(desitionationFile.getPath() + "/" + jarFileEntry.getName());
+                String name = jarFileEntry.getName();
+                if (multiReleaseSelector != null) {
+                    name = multiReleaseSelector.resolve(jarFileEntry);
+                }
+                
+                if (name != null && !filterFile(jarResource, jarFileEntry) 
+                        && (dependencyClosure == null || dependencyClosure.contains(jarFileEntry.getName()))
+                        && (nativeLibraryFilter == null || nativeLibraryFilter.accept(jarFileEntry.getName()))) {
+                    File f = new File(desitionationFile.getPath() + "/" + name);
                     if (jarFileEntry.isDirectory()) { // if its a directory, create it
-                        f.mkdir();
+                        f.mkdirs();
+                        addDirectories(directories, f);
                     } else {
-                        copyJarContent(jar, jarFileEntry, f);
+                        fileEntries.add(jarFileEntry);
+                        writtenFiles.add(f);
+                        addDirectories(directories, f.getParentFile());
                     }
                     
                     //Files.setLastModifiedTime(f.toPath(), jarFileEntry.getLastModifiedTime());
                 }
             }
+            copyJarContent(jar, fileEntries, writtenFiles);
+            
+            // sequential strict syncs are a phase of their own, parallel syncs overlap and stay in the wall time of the extraction
+            syncDuration = extractionTiming.getDurationNanos(ExtractionTiming.SYNC) - syncDuration;
+            extractionTiming.add(ExtractionTiming.EXTRACTION, System.nanoTime() - start - syncDuration);
+            if (multiReleaseSelector != null) {
+                LOG.debug("Skipped " + multiReleaseSelector.getSkippedEntries() + " versioned entries for java " + targetJavaVersion + ".");
+            }
+            if (nativeLibraryFilter != null) {
+                LOG.debug("Skipped " + nativeLibraryFilter.getSkippedEntries() + " native libraries of foreign platforms, target " + nativeLibraryFilter + ".");
+            }
+
+            Set<File> repackedFiles = new LinkedHashSet<>();
+            if (repackNestedJars) {
+                start = System.nanoTime();
+                File repackCachePath = new File(desitionationFile.getParentFile(), REPACK_CACHE);
+                NestedJarRepacker nestedJarRepacker = new NestedJarRepacker(repackCachePath);
+                nestedJarRepacker.setIoThrottle(backgroundIoThrottle);
+                nestedJarRepacker.setForkJoinPool(forkJoinPool);
+                repackStatistic = nestedJarRepacker.repack(writtenFiles);
+                repackedFiles.addAll(nestedJarRepacker.getWrittenFiles());
+                if (!repackedFiles.isEmpty()) {
+                    directories.add(repackCachePath);
+                }
+                extractionTiming.add(ExtractionTiming.REPACK, System.nanoTime() - start);
+                LOG.info(".: Nested jars of [" + desitionationFile + "]: " + repackStatistic + ".");
+            }
+
+            if (!DurabilityMode.NONE.equals(durabilityMode)) {
+                // in strict mode the extracted files are already synchronized, but the repacked jars are new files
+                start = System.nanoTime();
+                Set<File> syncFiles = new LinkedHashSet<>();
+                if (!DurabilityMode.STRICT.equals(durabilityMode)) {
+                    syncFiles.addAll(writtenFiles);
+                }
+                syncFiles.addAll(repackedFiles);
+                directories.add(desitionationFile.getParentFile());
+                if (forkJoinPool != null) {
+                    FileSyncUtil.getInstance().sync(syncFiles, directories, forkJoinPool);
+                } else {
+                    FileSyncUtil.getInstance().sync(syncFiles, directories, Runtime.getRuntime().availableProcessors());
+                }
+                extractionTiming.add(ExtractionTiming.SYNC, System.nanoTime() - start);
+            }
+            
+            writeCompleteFile(completeFile, jarfile);
+            createdPath = false;
+            LOG.info(".: Extracted [" + desitionationFile + "] in " + extractionTiming + ", durability " + durabilityMode + ".");
             return desitionationFile;
         } catch (IOException e) {
             LOG.warn("Could not exatract archive: " + e.getMessage(), e);
@@ -117,26 +519,115 @@ public class JarExtractor {
 
 
     /**
-     * Cleanup
+     * Cleanup a failed extraction, the created path is removed in the background.
      */
     public void cleanUp() {
         if (createdPath && desitionationFile != null) {
-            if (!desitionationFile.delete()) {
-                desitionationFile.deleteOnExit();
+            try {
+                if (!ExtractionCleaner.getInstance().removeExtraction(desitionationFile)) {
+                    LOG.debug("Keep the failed extraction [" + desitionationFile + "], it is in use.");
+                }
+            } catch (IOException e) {
+                LOG.warn("Could not remove the failed extraction [" + desitionationFile + "]: " + e.getMessage());
+            }
+            createdPath = false;
+        }
+    }
+
+    
+    /**
+     * Verify the jar file according to the verification policy. In case of {@link VerificationPolicy#VERIFY_ONCE} a successful 
+     * verification is recorded next to the extraction path, which is keyed by the fingerprint of the jar file.
+     *
+     * @param jarfile the jar file
+     * @throws IOException In case of an I/O issue or an invalid signature
+     */
+    private void verify(File jarfile) throws IOException {
+        if (VerificationPolicy.OFF.equals(verificationPolicy)) {
+            return;
+        }
+        
+        File verifiedFile = new File(desitionationFile.getPath() + VERIFIED_SUFFIX);
+        if (VerificationPolicy.VERIFY_ONCE.equals(verificationPolicy) && verifiedFile.exists()) {
+            LOG.debug("Already verified [" + jarfile + "].");
+            return;
+        }
+        
+        JarSignatureVerifier jarSignatureVerifier = new JarSignatureVerifier();
+        jarSignatureVerifier.setForkJoinPool(forkJoinPool);
+        jarSignatureVerifier.verify(jarfile);
+        
+        if (VerificationPolicy.VERIFY_ONCE.equals(verificationPolicy)) {
+            if (verifiedFile.getParentFile() != null) {
+                verifiedFile.getParentFile().mkdirs();
+            }
+            
+            if (!verifiedFile.createNewFile()) {
+                LOG.debug("Verification record [" + verifiedFile + "] already exist.");
             }
         }
     }
 
     
     /**
-     * Create the destination Path
+     * Write the complete file, it marks the extraction as complete and records the path of the extracted jar.
+     *
+     * @param completeFile the complete file
+     * @param jarfile the extracted jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private void writeCompleteFile(File completeFile, File jarfile) throws IOException {
+        Files.writeString(completeFile.toPath(), getSourcePath(jarfile), StandardCharsets.UTF_8);
+        
+        if (!DurabilityMode.NONE.equals(durabilityMode)) {
+            long start = System.nanoTime();
+            FileSyncUtil.getInstance().sync(completeFile);
+            FileSyncUtil.getInstance().syncDirectory(completeFile.getParentFile());
+            extractionTiming.add(ExtractionTiming.SYNC, System.nanoTime() - start);
+        }
+    }
+
+    
+    /**
+     * Read the path of the extracted jar from the complete file of an extraction
+     *
+     * @param desitionationFile the extraction
+     * @return the path of the extracted jar or null if the extraction is not complete or has no recorded jar
+     */
+    public static String readSourcePath(File desitionationFile) {
+        try {
+            String sourcePath = Files.readString(new File(desitionationFile.getPath() + COMPLETE_SUFFIX).toPath(), StandardCharsets.UTF_8).trim();
+            if (sourcePath.isEmpty()) {
+                return null;
+            }
+            return sourcePath;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    
+    /**
+     * Get the normalized absolute path of a jar file, it identifies the source of an extraction
+     *
+     * @param jarfile the jar file
+     * @return the path
+     */
+    public static String getSourcePath(File jarfile) {
+        return jarfile.getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    
+    /**
+     * Create the destination Path, it is keyed by the fingerprint of the central directory of the jar file
      * 
      * @param jarfile the jar file
      * @param destination the destination
+     * @param jarResource the jar resource
      * @return the created path
      * @throws IOException In case of an I/O issue
      */
-    private File prepareDestinationPath(File jarfile, String destination) throws IOException {
+    private File prepareDestinationPath(File jarfile, String destination, String jarResource) throws IOException {
         String jarFileName = jarfile.getName();
         int idx = jarFileName.lastIndexOf('.');
         if (idx > 0) {
@@ -152,13 +643,93 @@ public class JarExtractor {
             destinationPath += "/";
         }
         
-        FileTime fileTime = Files.getLastModifiedTime(jarfile.toPath(), LinkOption.NOFOLLOW_LINKS);
-        String outputPath = destinationPath + jarFileName + "-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss.SSS").withZone(ZoneId.of("Z")).format(fileTime.toInstant());
+        String outputPath = destinationPath + jarFileName + "-" + JarFingerprint.getInstance().fingerprint(jarfile);
+        if (!MultiReleaseMode.OFF.equals(multiReleaseMode)) {
+            // the selected versions depend on the mode and target version
+            outputPath += "-" + multiReleaseMode.name().toLowerCase(Locale.ROOT) + targetJavaVersion;
+        }
+        
+        if (nativeLibraryFilter != null) {
+            // the pruned native libraries depend on the target platform
+            outputPath += "-" + nativeLibraryFilter.getKey();
+        }
+        
+        if ((jarResource != null && !jarResource.isBlank()) || (closureResource != null && !closureResource.isBlank())) {
+            // a partial extraction depends on the selected entries
+            List<String> selection = new ArrayList<>();
+            selection.add(jarResource);
+            selection.add(closureResource);
+            selection.add(classpathIndex);
+            selection.addAll(closureIncludePaths);
+            outputPath += "-" + JarFingerprint.getInstance().hash(selection);
+        }
         LOG.debug("Created path [" + outputPath + "]");
         return new File(outputPath);
     }
 
     
+    /**
+     * Add a directory and all its ancestors up to the extraction path, they are created by mkdirs and must be synchronized 
+     * as well since many jars have no explicit directory entries.
+     *
+     * @param directories the directories
+     * @param directory the directory
+     */
+    private void addDirectories(Set<File> directories, File directory) {
+        File current = directory;
+        while (current != null && !current.equals(desitionationFile) && directories.add(current)) {
+            current = current.getParentFile();
+        }
+    }
+
+    
+    /**
+     * Copy the jar content of the entries, in parallel if a pool is set
+     * 
+     * @param jar the jar file
+     * @param jarFileEntries the jar file entries
+     * @param outputFiles the output files of the entries
+     * @throws IOException In case of an I/O error
+     */
+    private void copyJarContent(JarFile jar, List<JarEntry> jarFileEntries, List<File> outputFiles) throws IOException {
+        if (forkJoinPool == null) {
+            for (int i = 0; i < jarFileEntries.size(); i++) {
+                copyJarContent(jar, jarFileEntries.get(i), outputFiles.get(i));
+            }
+            return;
+        }
+        
+        List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < jarFileEntries.size(); i++) {
+            JarEntry jarFileEntry = jarFileEntries.get(i);
+            File outputFile = outputFiles.get(i);
+            tasks.add(ForkJoinTask.adapt(() -> copyJarContent(jar, jarFileEntry, outputFile)));
+        }
+        
+        try {
+            if (ForkJoinTask.getPool() == forkJoinPool) {
+                // inside the pool the worker helps and idle workers steal the entries
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                forkJoinPool.submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted extraction of [" + jar.getName() + "]!", e);
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof IOException)) {
+                cause = cause.getCause();
+            }
+            
+            if (cause != null) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Could not extract [" + jar.getName() + "]: " + e.getMessage(), e);
+        }
+    }
+
+    
     /**
      * Copy the jar content
      * 
@@ -175,8 +746,37 @@ public class JarExtractor {
         if (outputFile.getParentFile() != null && !outputFile.getParentFile().exists()) {
             outputFile.getParentFile().mkdirs();
         }
+        
+        if (!createdPath) {
+            // an existing file may be linked to the repack cache, it must not be overwritten in place
+            Files.deleteIfExists(outputFile.toPath());
+        }
+        
+        if (ioThrottle != null) {
+            ioThrottle.acquireFile();
+        }
         FileOutputStream fos = new FileOutputStream(outputFile);
-        StreamUtil.getInstance().channelCopy(is, fos);
+        long size = StreamUtil.getInstance().channelCopy(is, fos, ioThrottle);
+        
+        if (DurabilityMode.STRICT.equals(durabilityMode)) {
+            long start = System.nanoTime();
+            fos.getFD().sync();
+            long syncTime = System.nanoTime() - start;
+            if (forkJoinPool == null) {
+                extractionTiming.add(ExtractionTiming.SYNC, syncTime);
+            } else {
+                // the syncs of parallel entries overlap, their sum is not part of the wall time of the phases
+                extractionTiming.addParallelSync(syncTime);
+            }
+            
+            if (ioThrottle != null) {
+                ioThrottle.recordSyncLatency(syncTime);
+            }
+        } else if (ioThrottle != null && DurabilityMode.BATCHED.equals(durabilityMode)) {
+            // the sync latency tells the adaptive throttle how busy the device is, the file is synchronized anyway
+            ioThrottle.sampleSyncLatency(fos.getChannel());
+        }
+        extractionTiming.addFile(size);
         successfileCopied = true;
         
         try {
@@ -196,9 +796,9 @@ public class JarExtractor {
     
     
     /**
-     * Check if the file must be filtered
+     * Check if the file must be filtered, only the files of the jar resource path are extracted
      * 
-     * @param jarResource the jar resource
+     * @param jarResource the jar resource path
      * @param file the file to check
      * @return true to filter; otherwise do not filter
      */
@@ -207,6 +807,6 @@ public class JarExtractor {
             return false;
         }
         
-        return file.getName().startsWith(jarResource);
+        return !file.getName().startsWith(jarResource);
     }
 }
@@ -0,0 +1,245 @@
+/*
+ * JarFingerprint.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+
+/**
+ * Creates the fingerprint of an archive. The fingerprint is a hash over the names, CRCs and sizes of the central directory, 
+ * which is read from the end of the file. It does not depend on the file time and survives copies of the archive.
+ *
+ * @author patrick
+ */
+public final class JarFingerprint {
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE = 56;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int FINGERPRINT_LENGTH = 8;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    
+    /**
+     * Private class, the only instance of the singelton which will be created by accessing the holder class.
+     *
+     * @author patrick
+     */
+    private static class HOLDER {
+        static final JarFingerprint INSTANCE = new JarFingerprint();
+    }
+
+
+    /**
+     * Constructor
+     */
+    private JarFingerprint() {
+        // NOP
+    }
+
+
+    /**
+     * Get the instance
+     *
+     * @return the instance
+     */
+    public static JarFingerprint getInstance() {
+        return HOLDER.INSTANCE;
+    }
+
+    
+    /**
+     * Create the fingerprint of an archive
+     *
+     * @param file the archive
+     * @return the fingerprint as hex string
+     * @throws IOException In case of an I/O issue or an invalid archive
+     */
+    public String fingerprint(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer centralDirectory = readCentralDirectory(channel, file);
+            MessageDigest digest = createMessageDigest();
+            
+            ByteBuffer entry = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            while (centralDirectory.remaining() >= CENTRAL_DIRECTORY_HEADER_SIZE) {
+                int position = centralDirectory.position();
+                if (centralDirectory.getInt(position) != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+                    throw new IOException("Invalid central directory entry in [" + file + "]!");
+                }
+                
+                int nameLength = Short.toUnsignedInt(centralDirectory.getShort(position + 28));
+                int extraLength = Short.toUnsignedInt(centralDirectory.getShort(position + 30));
+                int commentLength = Short.toUnsignedInt(centralDirectory.getShort(position + 32));
+                
+                // crc, uncompressed size and name length, the length prefix keeps the names of different entries apart
+                entry.clear();
+                entry.putInt(centralDirectory.getInt(position + 16));
+                entry.putInt(centralDirectory.getInt(position + 24));
+                entry.putInt(nameLength);
+                entry.flip();
+                digest.update(entry);
+                
+                ByteBuffer name = centralDirectory.duplicate();
+                name.position(position + CENTRAL_DIRECTORY_HEADER_SIZE).limit(position + CENTRAL_DIRECTORY_HEADER_SIZE + nameLength);
+                digest.update(name);
+                
+                centralDirectory.position(position + CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength);
+            }
+            
+            return toHex(digest.digest(), FINGERPRINT_LENGTH);
+        }
+    }
+
+    
+    /**
+     * Create a hash over values with the same length as a fingerprint. Each value is prefixed by its length, 
+     * so different splits of the same characters and null values result in different hashes.
+     *
+     * @param values the values, they can contain null
+     * @return the hash as hex string
+     * @throws IOException In case the hash algorithm is not supported
+     */
+    public String hash(List<String> values) throws IOException {
+        MessageDigest digest = createMessageDigest();
+        ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        for (String value : values) {
+            byte[] data = new byte[0];
+            length.clear();
+            if (value == null) {
+                length.putInt(-1);
+            } else {
+                data = value.getBytes(StandardCharsets.UTF_8);
+                length.putInt(data.length);
+            }
+            
+            length.flip();
+            digest.update(length);
+            digest.update(data);
+        }
+        
+        return toHex(digest.digest(), FINGERPRINT_LENGTH);
+    }
+
+    
+    /**
+     * Read the central directory of the archive
+     *
+     * @param channel the file channel
+     * @param file the file
+     * @return the central directory
+     * @throws IOException In case of an I/O issue
+     */
+    private ByteBuffer readCentralDirectory(FileChannel channel, File file) throws IOException {
+        long fileSize = channel.size();
+        int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+        
+        int endOfCentralDirectory = -1;
+        for (int i = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE && i + END_OF_CENTRAL_DIRECTORY_SIZE + Short.toUnsignedInt(tail.getShort(i + 20)) == tailSize) {
+                endOfCentralDirectory = i;
+                break;
+            }
+        }
+        
+        if (endOfCentralDirectory < 0) {
+            throw new IOException("Could not find central directory in [" + file + "]!");
+        }
+
+        long centralDirectoryEnd = fileSize - tailSize + endOfCentralDirectory;
+        long centralDirectorySize = Integer.toUnsignedLong(tail.getInt(endOfCentralDirectory + 12));
+        if (centralDirectorySize == ZIP64_MAGIC || Integer.toUnsignedLong(tail.getInt(endOfCentralDirectory + 16)) == ZIP64_MAGIC) {
+            long locatorPosition = centralDirectoryEnd - ZIP64_LOCATOR_SIZE;
+            ByteBuffer locator = read(channel, locatorPosition, ZIP64_LOCATOR_SIZE);
+            if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+                throw new IOException("Invalid zip64 locator in [" + file + "]!");
+            }
+            
+            centralDirectoryEnd = locatorPosition - ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE;
+            ByteBuffer zip64EndOfCentralDirectory = read(channel, centralDirectoryEnd, ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE);
+            if (zip64EndOfCentralDirectory.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                throw new IOException("Invalid zip64 end of central directory in [" + file + "]!");
+            }
+            
+            centralDirectorySize = zip64EndOfCentralDirectory.getLong(40);
+        }
+        
+        // the central directory ends where the end of central directory record starts, this is independent of a prefixed launcher script
+        if (centralDirectorySize > Integer.MAX_VALUE || centralDirectorySize > centralDirectoryEnd) {
+            throw new IOException("Invalid central directory size in [" + file + "]!");
+        }
+
+        return read(channel, centralDirectoryEnd - centralDirectorySize, (int) centralDirectorySize);
+    }
+
+    
+    /**
+     * Read a part of the file
+     *
+     * @param channel the channel
+     * @param position the position
+     * @param size the size
+     * @return the read buffer in little endian order
+     * @throws IOException In case of an I/O issue
+     */
+    private ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file.");
+            }
+        }
+        
+        buffer.flip();
+        return buffer;
+    }
+
+    
+    /**
+     * Create the message digest
+     *
+     * @return the message digest
+     * @throws IOException In case the algorithm is not supported
+     */
+    private MessageDigest createMessageDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Could not create message digest: " + e.getMessage(), e);
+        }
+    }
+
+    
+    /**
+     * Convert the first bytes to a hex string
+     *
+     * @param data the data
+     * @param length the number of bytes to convert
+     * @return the hex string
+     */
+    private String toHex(byte[] data, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < Math.min(length, data.length); i++) {
+            builder.append(HEX[(data[i] >> 4) & 0x0F]).append(HEX[data[i] & 0x0F]);
+        }
+        return builder.toString();
+    }
+}
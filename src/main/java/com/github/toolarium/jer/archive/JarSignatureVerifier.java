@@ -0,0 +1,208 @@
+/*
+ * JarSignatureVerifier.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import com.github.toolarium.jer.util.ForkJoinUtil;
+import com.github.toolarium.jer.util.StreamUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Verifies the digests of a signed jar. The entries are split into chunks which are verified in parallel,
+ * each worker uses its own {@link JarFile} instance.
+ * 
+ * @author patrick
+ */
+public class JarSignatureVerifier {
+    private static final Logger LOG = LoggerFactory.getLogger(JarSignatureVerifier.class);
+    private static final String META_INF = "META-INF/";
+    private int parallelism;
+    private ForkJoinPool forkJoinPool;
+
+    
+    /**
+     * Constructor for JarSignatureVerifier
+     */
+    public JarSignatureVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    
+    /**
+     * Constructor for JarSignatureVerifier
+     *
+     * @param parallelism the number of parallel workers
+     */
+    public JarSignatureVerifier(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        this.forkJoinPool = null;
+    }
+
+    
+    /**
+     * Set the pool which verifies the chunks as tasks, e.g. the pool of a batch extraction
+     *
+     * @param forkJoinPool the pool or null to use own workers
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    
+    /**
+     * Verify the jar file
+     *
+     * @param jarfile the jar file
+     * @return true if the jar is signed and all entries are signed with valid digests; false if the jar is not signed
+     * @throws IOException In case of an I/O issue, an invalid digest or an unsigned entry
+     */
+    public boolean verify(File jarfile) throws IOException {
+        List<String> entryNames = new ArrayList<>();
+        boolean signed = false;
+        
+        try (JarFile jar = new JarFile(jarfile, false)) {
+            Enumeration<JarEntry> enumEntries = jar.entries();
+            while (enumEntries.hasMoreElements()) {
+                JarEntry jarFileEntry = enumEntries.nextElement();
+                if (isSignatureFile(jarFileEntry.getName())) {
+                    signed = true;
+                } else if (!jarFileEntry.isDirectory() && !isSigningRelated(jarFileEntry.getName())) {
+                    entryNames.add(jarFileEntry.getName());
+                }
+            }
+        }
+        
+        if (!signed) {
+            LOG.debug("The jar [" + jarfile + "] is not signed.");
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        int workers = Math.min(parallelism, Math.max(1, entryNames.size()));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            chunks.add(new ArrayList<>());
+        }
+        for (int i = 0; i < entryNames.size(); i++) {
+            chunks.get(i % workers).add(entryNames.get(i));
+        }
+
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            tasks.add(() -> verifyEntries(jarfile, chunk));
+        }
+
+        ExecutorService executorService = null;
+        try {
+            int unsignedEntries = 0;
+            if (forkJoinPool != null) {
+                for (Integer result : ForkJoinUtil.getInstance().invokeAll(forkJoinPool, tasks)) {
+                    unsignedEntries += result;
+                }
+            } else {
+                executorService = Executors.newFixedThreadPool(workers);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (Callable<Integer> task : tasks) {
+                    results.add(executorService.submit(task));
+                }
+                
+                for (Future<Integer> result : results) {
+                    unsignedEntries += result.get();
+                }
+            }
+            
+            if (unsignedEntries > 0) {
+                // an entry which was added to a signed jar is not covered by the signature
+                throw new IOException("Invalid signature of [" + jarfile + "]: " + unsignedEntries + " unsigned entries!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted verification of [" + jarfile + "]!", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Invalid signature of [" + jarfile + "]: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+        }
+        
+        LOG.debug("Verified [" + jarfile + "] with " + workers + " workers in " + (System.currentTimeMillis() - start) + "ms.");
+        return true;
+    }
+
+    
+    /**
+     * Verify the entries, the digest is checked by the {@link JarFile} while the entry is read.
+     *
+     * @param jarfile the jar file
+     * @param entryNames the entry names to verify
+     * @return the number of unsigned entries
+     * @throws IOException In case of an I/O issue
+     */
+    private int verifyEntries(File jarfile, List<String> entryNames) throws IOException {
+        int unsignedEntries = 0;
+        try (JarFile jar = new JarFile(jarfile, true)) {
+            for (String name : entryNames) {
+                JarEntry jarFileEntry = jar.getJarEntry(name);
+                try (InputStream is = jar.getInputStream(jarFileEntry)) {
+                    StreamUtil.getInstance().channelCopy(is, OutputStream.nullOutputStream());
+                }
+                
+                if (jarFileEntry.getCodeSigners() == null) {
+                    unsignedEntries++;
+                }
+            }
+        }
+        return unsignedEntries;
+    }
+
+    
+    /**
+     * Check if the entry is related to the signing, e.g. the manifest or a signature block, these entries are not signed
+     *
+     * @param name the entry name
+     * @return true if it is related to the signing
+     */
+    private boolean isSigningRelated(String name) {
+        String upperCaseName = name.toUpperCase(Locale.ROOT);
+        if (!upperCaseName.startsWith(META_INF) || upperCaseName.indexOf('/', META_INF.length()) >= 0) {
+            return false;
+        }
+        
+        String fileName = upperCaseName.substring(META_INF.length());
+        return "MANIFEST.MF".equals(fileName) || fileName.startsWith("SIG-") || fileName.endsWith(".SF") 
+                || fileName.endsWith(".DSA") || fileName.endsWith(".RSA") || fileName.endsWith(".EC");
+    }
+
+    
+    /**
+     * Check if the entry is a signature file
+     *
+     * @param name the entry name
+     * @return true if it is a signature file
+     */
+    private boolean isSignatureFile(String name) {
+        String upperCaseName = name.toUpperCase(Locale.ROOT);
+        return upperCaseName.startsWith(META_INF) && upperCaseName.indexOf('/', META_INF.length()) < 0 && upperCaseName.endsWith(".SF");
+    }
+}
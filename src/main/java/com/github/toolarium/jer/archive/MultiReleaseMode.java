@@ -0,0 +1,23 @@
+/*
+ * MultiReleaseMode.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+
+/**
+ * Defines how the versioned entries of a multi-release jar are extracted.
+ * 
+ * @author patrick
+ */
+public enum MultiReleaseMode {
+    /** All entries are extracted. */
+    OFF,
+
+    /** Only the best matching version of an entry is extracted, it is kept in its versioned location. */
+    KEEP,
+
+    /** Only the best matching version of an entry is extracted, it is written into the base path. */
+    FLATTEN;
+}
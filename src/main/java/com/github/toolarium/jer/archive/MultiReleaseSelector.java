@@ -0,0 +1,143 @@
+/*
+ * MultiReleaseSelector.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+
+/**
+ * Selects the entries of a multi-release jar for a target java version. For every entry only the best matching 
+ * version is selected, which is the highest version not greater than the target version.
+ * 
+ * @author patrick
+ */
+public class MultiReleaseSelector {
+    private static final String VERSIONS = "META-INF/versions/";
+    private static final int BASE_VERSION = 8;
+    private MultiReleaseMode multiReleaseMode;
+    private int targetVersion;
+    private Map<String, Integer> bestVersions;
+    private int skippedEntries;
+
+    
+    /**
+     * Constructor for MultiReleaseSelector
+     *
+     * @param jar the jar file
+     * @param multiReleaseMode the multi-release mode
+     * @param targetVersion the feature version of the java runtime which runs the extracted content
+     */
+    public MultiReleaseSelector(JarFile jar, MultiReleaseMode multiReleaseMode, int targetVersion) {
+        this.multiReleaseMode = multiReleaseMode;
+        this.targetVersion = targetVersion;
+        this.bestVersions = new HashMap<>();
+        this.skippedEntries = 0;
+        
+        Enumeration<JarEntry> enumEntries = jar.entries();
+        while (enumEntries.hasMoreElements()) {
+            JarEntry jarFileEntry = enumEntries.nextElement();
+            int version = getVersion(jarFileEntry.getName());
+            if (version > BASE_VERSION && version <= targetVersion && !jarFileEntry.isDirectory()) {
+                bestVersions.merge(getBaseName(jarFileEntry.getName()), version, Math::max);
+            }
+        }
+    }
+
+    
+    /**
+     * Check if the jar is a multi-release jar
+     *
+     * @param jar the jar file
+     * @return true if the manifest contains the multi-release attribute
+     * @throws IOException In case of an I/O issue
+     */
+    public static boolean isMultiRelease(JarFile jar) throws IOException {
+        Manifest manifest = jar.getManifest();
+        return manifest != null && Boolean.parseBoolean(manifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE));
+    }
+
+    
+    /**
+     * Resolve the name of the extracted entry
+     *
+     * @param jarFileEntry the entry
+     * @return the name of the extracted entry or null if the entry is not extracted
+     */
+    public String resolve(JarEntry jarFileEntry) {
+        String name = jarFileEntry.getName();
+        int version = getVersion(name);
+        if (version <= BASE_VERSION) {
+            if (MultiReleaseMode.FLATTEN.equals(multiReleaseMode) && bestVersions.containsKey(name)) {
+                skippedEntries++;
+                return null;
+            }
+            return name;
+        }
+
+        String baseName = getBaseName(name);
+        if (jarFileEntry.isDirectory() || version > targetVersion || !Integer.valueOf(version).equals(bestVersions.get(baseName))) {
+            skippedEntries++;
+            return null;
+        }
+        
+        if (MultiReleaseMode.FLATTEN.equals(multiReleaseMode)) {
+            return baseName;
+        }
+        return name;
+    }
+
+    
+    /**
+     * Get the number of skipped entries
+     *
+     * @return the number of skipped entries
+     */
+    public int getSkippedEntries() {
+        return skippedEntries;
+    }
+
+    
+    /**
+     * Get the version of an entry
+     *
+     * @param name the entry name
+     * @return the version or {@link #BASE_VERSION} for entries outside the versions directory
+     */
+    private int getVersion(String name) {
+        if (!name.startsWith(VERSIONS)) {
+            return BASE_VERSION;
+        }
+        
+        int idx = name.indexOf('/', VERSIONS.length());
+        if (idx < 0) {
+            return BASE_VERSION;
+        }
+        
+        try {
+            return Integer.parseInt(name.substring(VERSIONS.length(), idx));
+        } catch (NumberFormatException e) {
+            return BASE_VERSION;
+        }
+    }
+
+    
+    /**
+     * Get the base name of a versioned entry
+     *
+     * @param name the entry name
+     * @return the name without the versions directory
+     */
+    private String getBaseName(String name) {
+        return name.substring(name.indexOf('/', VERSIONS.length()) + 1);
+    }
+}
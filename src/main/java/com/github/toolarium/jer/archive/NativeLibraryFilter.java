@@ -0,0 +1,271 @@
+/*
+ * NativeLibraryFilter.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Filters the native libraries of foreign platforms. A rule is a regular expression on the entry name with the named 
+ * groups <code>os</code> and <code>arch</code>, or <code>platform</code> for a combined <code>os-arch</code>. An entry 
+ * which matches a rule is skipped if its operating system or architecture is known and differs from the target platform. 
+ * Entries which match no rule or name an unknown platform are kept, the filter never removes anything it does not understand.
+ *
+ * @author patrick
+ */
+public class NativeLibraryFilter {
+    /** The built-in rules of the common native resource layouts */
+    public static final List<String> DEFAULT_RULES = List.of(
+            // netty, e.g. META-INF/native/libnetty_tcnative_linux_x86_64.so or netty_resolver_dns_native_macos_aarch_64.jnilib
+            "META-INF/native/[^/]*?_(?<os>linux|osx|macos|windows)_(?<arch>[a-z0-9]+_(?:64|32)|[a-z0-9]+)\\.[a-z]+",
+            // netty without operating system, e.g. META-INF/native/libnetty_transport_native_kqueue_aarch_64.jnilib
+            "META-INF/native/[^/]*\\.(?<os>dll|dylib|jnilib)",
+            // netty with the architecture only, e.g. META-INF/native/libnetty_transport_native_epoll_x86_64.so
+            "META-INF/native/[^/]*?_(?<arch>[a-z0-9]+_(?:64|32)|[a-z0-9]+)\\.so",
+            // jansi, e.g. org/fusesource/jansi/internal/native/Linux/x86_64/libjansi.so
+            "org/fusesource/jansi/internal/native/(?<os>[^/]+)/(?<arch>[^/]+)/.+",
+            // sqlite, e.g. org/sqlite/native/Mac/aarch64/libsqlitejdbc.dylib
+            "org/sqlite/native/(?<os>[^/]+)/(?<arch>[^/]+)/.+",
+            // lwjgl and others, e.g. natives/windows-x86_64/lwjgl.dll
+            "natives/(?<platform>[^/]+)/.+",
+            // jna, e.g. com/sun/jna/linux-x86-64/libjnidispatch.so
+            "com/sun/jna/(?<platform>[a-z0-9]+-[^/]+)/.+");
+    private static final String OS = "os";
+    private static final String ARCH = "arch";
+    private static final String PLATFORM = "platform";
+    private static final Map<String, String> OS_ALIASES = new HashMap<>();
+    private static final Map<String, String> ARCH_ALIASES = new HashMap<>();
+    private String targetOs;
+    private String targetArch;
+    private List<Pattern> rules;
+    private List<String> customRules;
+    private long skippedEntries;
+
+    static {
+        addAliases(OS_ALIASES, "linux", "linux", "linux-musl", "linux_musl");
+        addAliases(OS_ALIASES, "osx", "osx", "mac", "macos", "macosx", "mac os x", "darwin", "dylib", "jnilib");
+        addAliases(OS_ALIASES, "windows", "windows", "win", "win32", "win64", "dll");
+        addAliases(OS_ALIASES, "android", "android", "linux-android");
+        addAliases(OS_ALIASES, "freebsd", "freebsd");
+        addAliases(OS_ALIASES, "openbsd", "openbsd");
+        addAliases(OS_ALIASES, "sunos", "sunos", "solaris");
+        addAliases(OS_ALIASES, "aix", "aix");
+        
+        addAliases(ARCH_ALIASES, "x86_64", "x86_64", "x86-64", "amd64", "x64", "x8664");
+        addAliases(ARCH_ALIASES, "aarch64", "aarch64", "aarch_64", "arm64", "armv8");
+        addAliases(ARCH_ALIASES, "x86", "x86", "x86_32", "x86-32", "i386", "i486", "i586", "i686", "386");
+        addAliases(ARCH_ALIASES, "arm", "arm", "armv7", "armv6", "armhf", "armel", "arm32", "armv7l");
+        addAliases(ARCH_ALIASES, "ppc64le", "ppc64le", "ppcle_64", "ppc64el");
+        addAliases(ARCH_ALIASES, "ppc64", "ppc64", "ppc_64");
+        addAliases(ARCH_ALIASES, "s390x", "s390x", "s390_64");
+        addAliases(ARCH_ALIASES, "riscv64", "riscv64", "riscv");
+        addAliases(ARCH_ALIASES, "loongarch64", "loongarch64", "loongarch_64");
+    }
+
+    
+    /**
+     * Constructor for NativeLibraryFilter, the target is the current platform
+     */
+    public NativeLibraryFilter() {
+        this(System.getProperty("os.name"), System.getProperty("os.arch"));
+    }
+
+    
+    /**
+     * Constructor for NativeLibraryFilter
+     *
+     * @param os the operating system of the target, e.g. linux
+     * @param arch the architecture of the target, e.g. x86_64 or aarch64
+     */
+    public NativeLibraryFilter(String os, String arch) {
+        this.targetOs = normalizeOs(os);
+        this.targetArch = normalizeArch(arch);
+        if (targetOs == null || targetArch == null) {
+            throw new IllegalArgumentException("Unsupported platform [" + os + "/" + arch + "]!");
+        }
+        
+        this.rules = new ArrayList<>();
+        this.customRules = new ArrayList<>();
+        this.skippedEntries = 0;
+        for (String rule : DEFAULT_RULES) {
+            rules.add(Pattern.compile(rule));
+        }
+    }
+
+    
+    /**
+     * Add a user-defined rule, a regular expression with the named groups os and arch or platform
+     *
+     * @param rule the rule
+     */
+    public void addRule(String rule) {
+        Pattern pattern = Pattern.compile(rule);
+        if (!rule.contains("(?<" + OS + ">") && !rule.contains("(?<" + ARCH + ">") && !rule.contains("(?<" + PLATFORM + ">")) {
+            throw new IllegalArgumentException("The rule [" + rule + "] defines no os, arch or platform group!");
+        }
+        
+        rules.add(pattern);
+        customRules.add(rule);
+    }
+
+    
+    /**
+     * Check if an entry is extracted
+     *
+     * @param name the entry name
+     * @return false if it is a native library of a foreign platform
+     */
+    public boolean accept(String name) {
+        for (Pattern rule : rules) {
+            Matcher matcher = rule.matcher(name);
+            if (matcher.matches()) {
+                String os = normalizeOs(group(matcher, OS));
+                String arch = normalizeArch(group(matcher, ARCH));
+                String platform = group(matcher, PLATFORM);
+                if (platform != null) {
+                    int idx = platform.indexOf('-');
+                    if (idx > 0) {
+                        os = normalizeOs(platform.substring(0, idx));
+                        arch = normalizeArch(platform.substring(idx + 1));
+                    } else {
+                        os = normalizeOs(platform);
+                    }
+                }
+
+                if ((os != null && !os.equals(targetOs)) || (arch != null && !arch.equals(targetArch))) {
+                    synchronized (this) {
+                        skippedEntries++;
+                    }
+                    return false;
+                }
+                return true;
+            }
+        }
+        return true;
+    }
+
+    
+    /**
+     * Get the target operating system
+     *
+     * @return the normalized operating system
+     */
+    public String getTargetOs() {
+        return targetOs;
+    }
+
+    
+    /**
+     * Get the target architecture
+     *
+     * @return the normalized architecture
+     */
+    public String getTargetArch() {
+        return targetArch;
+    }
+
+    
+    /**
+     * Get the number of skipped entries
+     *
+     * @return the number of skipped entries
+     */
+    public synchronized long getSkippedEntries() {
+        return skippedEntries;
+    }
+
+    
+    /**
+     * Get the key of the filter, the extracted entries depend on it
+     *
+     * @return the key
+     */
+    public String getKey() {
+        String key = targetOs + "-" + targetArch;
+        if (!customRules.isEmpty()) {
+            key += "-" + Integer.toHexString(customRules.hashCode());
+        }
+        return key;
+    }
+
+    
+    /**
+     * Normalize the name of an operating system
+     *
+     * @param os the operating system
+     * @return the normalized operating system or null if it is unknown
+     */
+    public static String normalizeOs(String os) {
+        if (os == null) {
+            return null;
+        }
+        
+        String name = os.trim().toLowerCase(Locale.ROOT);
+        if (name.startsWith("windows")) {
+            return "windows";
+        }
+        return OS_ALIASES.get(name);
+    }
+
+    
+    /**
+     * Normalize the name of an architecture
+     *
+     * @param arch the architecture
+     * @return the normalized architecture or null if it is unknown
+     */
+    public static String normalizeArch(String arch) {
+        if (arch == null) {
+            return null;
+        }
+        return ARCH_ALIASES.get(arch.trim().toLowerCase(Locale.ROOT));
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getKey();
+    }
+
+    
+    /**
+     * Get a named group
+     *
+     * @param matcher the matcher
+     * @param name the group name
+     * @return the value or null if the rule does not define the group
+     */
+    private static String group(Matcher matcher, String name) {
+        try {
+            return matcher.group(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    
+    /**
+     * Add the aliases of a name
+     *
+     * @param aliases the aliases
+     * @param name the normalized name
+     * @param values the aliases of the name
+     */
+    private static void addAliases(Map<String, String> aliases, String name, String... values) {
+        for (String value : values) {
+            aliases.put(value, name);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * NestedJarRepacker.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import com.github.toolarium.jer.util.ForkJoinUtil;
+import com.github.toolarium.jer.util.IoThrottle;
+import com.github.toolarium.jer.util.StreamUtil;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Rewrites extracted nested jars as stored (uncompressed) archives with a sorted central directory, the child can read 
+ * the classes without inflating them. The repacked jars are kept in a cache keyed by their fingerprint, a nested jar with 
+ * an unchanged fingerprint is taken from the cache.
+ * 
+ * @author patrick
+ */
+public class NestedJarRepacker {
+    private static final Logger LOG = LoggerFactory.getLogger(NestedJarRepacker.class);
+    private static final String JAR_SUFFIX = ".jar";
+    private static final String REPACK_SUFFIX = ".repack";
+    private static final String META_INF = "META-INF/";
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+    private File cachePath;
+    private int parallelism;
+    private IoThrottle ioThrottle;
+    private ForkJoinPool forkJoinPool;
+    private Set<File> writtenFiles;
+
+    
+    /**
+     * Constructor for NestedJarRepacker
+     *
+     * @param cachePath the path of the repack cache
+     */
+    public NestedJarRepacker(File cachePath) {
+        this(cachePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    
+    /**
+     * Constructor for NestedJarRepacker
+     *
+     * @param cachePath the path of the repack cache
+     * @param parallelism the number of parallel workers
+     */
+    public NestedJarRepacker(File cachePath, int parallelism) {
+        this.cachePath = cachePath;
+        this.parallelism = Math.max(1, parallelism);
+        this.ioThrottle = null;
+        this.forkJoinPool = null;
+        this.writtenFiles = ConcurrentHashMap.newKeySet();
+    }
+
+    
+    /**
+     * Set the throttle which limits the writes of the repacked jars
+     *
+     * @param ioThrottle the throttle or null for unlimited
+     */
+    public void setIoThrottle(IoThrottle ioThrottle) {
+        this.ioThrottle = ioThrottle;
+    }
+
+    
+    /**
+     * Set the pool which runs the repacks as tasks, e.g. the pool of a batch extraction
+     *
+     * @param forkJoinPool the pool or null to use own workers
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    
+    /**
+     * Get the files written by the last repack, the replaced jars and the files of the repack cache. They are new files which 
+     * have to be synchronized to the disk in case of a durable extraction.
+     *
+     * @return the written files
+     */
+    public Set<File> getWrittenFiles() {
+        return writtenFiles;
+    }
+
+    
+    /**
+     * Repack the jars of the given files, all other files are ignored
+     *
+     * @param files the extracted files
+     * @return the statistic
+     * @throws IOException In case of an I/O issue
+     */
+    public RepackStatistic repack(Collection<File> files) throws IOException {
+        RepackStatistic repackStatistic = new RepackStatistic();
+        writtenFiles.clear();
+        List<File> jarFiles = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(JAR_SUFFIX)) {
+                jarFiles.add(file);
+            }
+        }
+        
+        if (jarFiles.isEmpty()) {
+            return repackStatistic;
+        }
+        
+        cachePath.mkdirs();
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (File jarFile : jarFiles) {
+            tasks.add(() -> {
+                repack(jarFile, repackStatistic);
+                return null;
+            });
+        }
+        
+        ExecutorService executorService = null;
+        try {
+            if (forkJoinPool != null) {
+                ForkJoinUtil.getInstance().invokeAll(forkJoinPool, tasks);
+            } else {
+                executorService = Executors.newFixedThreadPool(Math.min(parallelism, jarFiles.size()));
+                List<Future<?>> results = new ArrayList<>();
+                for (Callable<Object> task : tasks) {
+                    results.add(executorService.submit(task));
+                }
+                
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted repacking!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not repack: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+        }
+        
+        return repackStatistic;
+    }
+
+    
+    /**
+     * Evict the cached jars which are not linked by an extraction anymore. The link count of the file system tells if a 
+     * cached jar is still linked, without a link count the cache is kept.
+     *
+     * @return the number of evicted jars
+     */
+    public int evict() {
+        File[] cachedFiles = cachePath.listFiles((dir, name) -> name.endsWith(JAR_SUFFIX));
+        if (cachedFiles == null) {
+            return 0;
+        }
+        
+        int evicted = 0;
+        for (File cachedFile : cachedFiles) {
+            try {
+                Object linkCount = Files.getAttribute(cachedFile.toPath(), "unix:nlink");
+                if (linkCount instanceof Integer && (Integer) linkCount <= 1 && Files.deleteIfExists(cachedFile.toPath())) {
+                    LOG.debug("Evicted [" + cachedFile + "] from the repack cache.");
+                    evicted++;
+                }
+            } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+                LOG.debug("Keep [" + cachedFile + "] in the repack cache: " + e.getMessage());
+            }
+        }
+        return evicted;
+    }
+
+    
+    /**
+     * Repack a jar
+     *
+     * @param jarFile the jar file
+     * @param repackStatistic the statistic
+     * @throws IOException In case of an I/O issue
+     */
+    private void repack(File jarFile, RepackStatistic repackStatistic) throws IOException {
+        long originalSize = jarFile.length();
+        String fingerprint = JarFingerprint.getInstance().fingerprint(jarFile);
+        Path cachedFile = new File(cachePath, fingerprint + JAR_SUFFIX).toPath();
+        Path repackedFile = jarFile.toPath().resolveSibling(jarFile.getName() + REPACK_SUFFIX);
+
+        if (Files.exists(cachedFile)) {
+            try {
+                linkOrCopy(cachedFile, repackedFile);
+                Files.move(repackedFile, jarFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                writtenFiles.add(jarFile);
+                writtenFiles.add(cachedFile.toFile());
+                repackStatistic.addReused(originalSize, jarFile.length());
+                LOG.debug("Reused repacked [" + jarFile + "].");
+                return;
+            } catch (NoSuchFileException e) {
+                LOG.debug("The repacked [" + jarFile + "] was evicted from the cache, repack it again.");
+            }
+        }
+
+        if (ioThrottle != null) {
+            ioThrottle.acquireFile();
+        }
+        
+        try (ZipFile zipFile = new ZipFile(jarFile)) {
+            List<ZipEntry> entries = new ArrayList<>();
+            zipFile.stream().forEach(entries::add);
+            if (entries.stream().allMatch(entry -> entry.getMethod() == ZipEntry.STORED)) {
+                repackStatistic.addSkipped();
+                return;
+            }
+            
+            entries.sort(Comparator.comparingInt(this::getOrder).thenComparing(ZipEntry::getName));
+            try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(repackedFile)))) {
+                for (ZipEntry entry : entries) {
+                    ZipEntry storedEntry = new ZipEntry(entry.getName());
+                    storedEntry.setMethod(ZipEntry.STORED);
+                    storedEntry.setTime(entry.getTime());
+                    storedEntry.setSize(entry.getSize());
+                    storedEntry.setCompressedSize(entry.getSize());
+                    storedEntry.setCrc(entry.getCrc());
+                    zos.putNextEntry(storedEntry);
+                    
+                    if (!entry.isDirectory()) {
+                        try (InputStream is = zipFile.getInputStream(entry)) {
+                            StreamUtil.getInstance().channelCopy(is, zos, ioThrottle);
+                        }
+                    }
+                    zos.closeEntry();
+                }
+            }
+        }
+
+        // keep the repacked jar in the cache, the temporary name of the process and thread makes the cache update atomic
+        Path cacheUpdateFile = cachedFile.resolveSibling(fingerprint + REPACK_SUFFIX + ProcessHandle.current().pid() + "-" + Thread.currentThread().getId());
+        linkOrCopy(repackedFile, cacheUpdateFile);
+        Files.move(cacheUpdateFile, cachedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        Files.move(repackedFile, jarFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writtenFiles.add(jarFile);
+        writtenFiles.add(cachedFile.toFile());
+        repackStatistic.addRepacked(originalSize, jarFile.length());
+        LOG.debug("Repacked [" + jarFile + "].");
+    }
+
+    
+    /**
+     * Create a hard link or a copy in case the file system does not support it
+     *
+     * @param source the source
+     * @param target the target
+     * @throws IOException In case of an I/O issue
+     */
+    void linkOrCopy(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    
+    /**
+     * Get the order of an entry, the manifest is expected at the beginning of a jar
+     *
+     * @param entry the entry
+     * @return the order
+     */
+    private int getOrder(ZipEntry entry) {
+        if (META_INF.equals(entry.getName())) {
+            return 0;
+        }
+        
+        if (MANIFEST.equalsIgnoreCase(entry.getName())) {
+            return 1;
+        }
+        return 2;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * RepackStatistic.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+
+/**
+ * The statistic of the repacked nested jars.
+ * 
+ * @author patrick
+ */
+public class RepackStatistic {
+    private int repacked;
+    private int reused;
+    private int skipped;
+    private long originalBytes;
+    private long repackedBytes;
+
+    
+    /**
+     * Constructor for RepackStatistic
+     */
+    public RepackStatistic() {
+        repacked = 0;
+        reused = 0;
+        skipped = 0;
+        originalBytes = 0;
+        repackedBytes = 0;
+    }
+
+    
+    /**
+     * Add a repacked jar
+     *
+     * @param originalSize the size of the original jar
+     * @param repackedSize the size of the repacked jar
+     */
+    public synchronized void addRepacked(long originalSize, long repackedSize) {
+        repacked++;
+        originalBytes += originalSize;
+        repackedBytes += repackedSize;
+    }
+
+    
+    /**
+     * Add a jar which was taken from the repack cache because its fingerprint has not changed
+     *
+     * @param originalSize the size of the original jar
+     * @param repackedSize the size of the repacked jar
+     */
+    public synchronized void addReused(long originalSize, long repackedSize) {
+        reused++;
+        originalBytes += originalSize;
+        repackedBytes += repackedSize;
+    }
+
+    
+    /**
+     * Add a jar which was not repacked because it is already stored
+     */
+    public synchronized void addSkipped() {
+        skipped++;
+    }
+
+    
+    /**
+     * Get the number of repacked jars
+     *
+     * @return the number of repacked jars
+     */
+    public synchronized int getRepacked() {
+        return repacked;
+    }
+
+    
+    /**
+     * Get the number of jars taken from the repack cache
+     *
+     * @return the number of reused jars
+     */
+    public synchronized int getReused() {
+        return reused;
+    }
+
+    
+    /**
+     * Get the number of skipped jars
+     *
+     * @return the number of skipped jars
+     */
+    public synchronized int getSkipped() {
+        return skipped;
+    }
+
+    
+    /**
+     * Get the additional disk usage of the repacked jars
+     *
+     * @return the additional disk usage in bytes
+     */
+    public synchronized long getDiskCost() {
+        return repackedBytes - originalBytes;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "repacked " + repacked + ", reused " + reused + ", skipped " + skipped + " jars, disk cost " + getDiskCost() + " bytes (" + originalBytes + " -> " + repackedBytes + " bytes)";
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * VerificationPolicy.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+
+/**
+ * Defines how the signature of a jar is verified before it is extracted.
+ * 
+ * @author patrick
+ */
+public enum VerificationPolicy {
+    /** The jar is opened without any signature verification. */
+    OFF,
+
+    /** The jar is verified once in a separate parallel pass, a successful verification is recorded in the extraction cache. */
+    VERIFY_ONCE,
+
+    /** The jar is verified on every extraction in a separate parallel pass. */
+    ALWAYS;
+}
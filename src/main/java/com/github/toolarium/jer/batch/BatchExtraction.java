@@ -0,0 +1,133 @@
+/*
+ * BatchExtraction.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.batch;
+
+import com.github.toolarium.jer.archive.JarExtractor;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Extracts many jars in one invocation. All jars and their entries are scheduled on one shared work-stealing pool: an idle 
+ * worker takes the entries of any jar, a small jar does not leave a worker waiting for a large one. The extractors share 
+ * the pool, the copy buffers of the {@link com.github.toolarium.jer.util.StreamUtil} and the configured throttles.
+ *
+ * @author patrick
+ */
+public class BatchExtraction {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchExtraction.class);
+    private static final String JAR_SUFFIX = ".jar";
+    private List<File> paths;
+    private String destination;
+    private String jarResourcePath;
+    private boolean overwrite;
+    private Supplier<JarExtractor> jarExtractorSupplier;
+    private ForkJoinPool forkJoinPool;
+
+    
+    /**
+     * Constructor for BatchExtraction
+     *
+     * @param paths the jars or directories of jars
+     * @param destination the destination directory or null for the system temp
+     * @param jarResourcePath the subpath in the jar to extract or null
+     * @param overwrite true to overwrite existing extractions
+     * @param jarExtractorSupplier the supplier of configured jar extractors
+     * @param forkJoinPool the shared pool
+     */
+    public BatchExtraction(List<File> paths, String destination, String jarResourcePath, boolean overwrite, Supplier<JarExtractor> jarExtractorSupplier, ForkJoinPool forkJoinPool) {
+        this.paths = paths;
+        this.destination = destination;
+        this.jarResourcePath = jarResourcePath;
+        this.overwrite = overwrite;
+        this.jarExtractorSupplier = jarExtractorSupplier;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    
+    /**
+     * Get the jars to extract, a directory is replaced by its jars
+     *
+     * @return the jars to extract
+     */
+    public List<File> getJarFiles() {
+        List<File> jarFiles = new ArrayList<>();
+        for (File path : paths) {
+            if (path.isDirectory()) {
+                File[] files = path.listFiles((dir, name) -> name.endsWith(JAR_SUFFIX));
+                if (files != null) {
+                    Arrays.sort(files);
+                    for (File file : files) {
+                        if (file.isFile()) {
+                            jarFiles.add(file);
+                        }
+                    }
+                }
+            } else {
+                // a missing jar is reported as failed
+                jarFiles.add(path);
+            }
+        }
+        return jarFiles;
+    }
+
+    
+    /**
+     * Extract all jars, a failed jar does not stop the others
+     *
+     * @return the result of each jar in the order of the jars
+     */
+    public List<BatchResult> extract() {
+        List<File> jarFiles = getJarFiles();
+        LOG.info("Extract " + jarFiles.size() + " jars with parallelism " + forkJoinPool.getParallelism() + "...");
+        
+        List<ForkJoinTask<BatchResult>> tasks = new ArrayList<>();
+        for (File jarFile : jarFiles) {
+            tasks.add(forkJoinPool.submit(() -> extract(jarFile)));
+        }
+        
+        List<BatchResult> results = new ArrayList<>();
+        for (ForkJoinTask<BatchResult> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    
+    /**
+     * Extract a jar, it runs inside the pool
+     *
+     * @param jarFile the jar file
+     * @return the result
+     */
+    private BatchResult extract(File jarFile) {
+        JarExtractor jarExtractor = jarExtractorSupplier.get();
+        jarExtractor.setForkJoinPool(forkJoinPool);
+        
+        long start = System.nanoTime();
+        try {
+            File desitionationFile = jarExtractor.extract(destination, jarFile.getPath(), jarResourcePath, overwrite);
+            return new BatchResult(jarFile, desitionationFile, jarExtractor.getExtractionTiming(), System.nanoTime() - start, null);
+        } catch (IllegalAccessException | IOException | RuntimeException e) {
+            LOG.debug("Could not extract [" + jarFile + "]: " + e.getMessage(), e);
+            jarExtractor.cleanUp();
+            
+            String error = e.getMessage();
+            if (error == null) {
+                error = e.getClass().getName();
+            }
+            return new BatchResult(jarFile, null, jarExtractor.getExtractionTiming(), System.nanoTime() - start, error);
+        }
+    }
+}
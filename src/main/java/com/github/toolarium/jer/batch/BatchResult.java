@@ -0,0 +1,118 @@
+/*
+ * BatchResult.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.batch;
+
+import com.github.toolarium.jer.archive.ExtractionTiming;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The result of a jar of a batch extraction.
+ *
+ * @author patrick
+ */
+public class BatchResult {
+    private File jarFile;
+    private File desitionationFile;
+    private ExtractionTiming extractionTiming;
+    private long durationNanos;
+    private String error;
+
+    
+    /**
+     * Constructor for BatchResult
+     *
+     * @param jarFile the jar file
+     * @param desitionationFile the extraction or null if it failed
+     * @param extractionTiming the timing of the extraction
+     * @param durationNanos the duration in nanoseconds
+     * @param error the error or null if it was successful
+     */
+    public BatchResult(File jarFile, File desitionationFile, ExtractionTiming extractionTiming, long durationNanos, String error) {
+        this.jarFile = jarFile;
+        this.desitionationFile = desitionationFile;
+        this.extractionTiming = extractionTiming;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    
+    /**
+     * Check if the jar was extracted
+     *
+     * @return true if it was successful
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    
+    /**
+     * Get the jar file
+     *
+     * @return the jar file
+     */
+    public File getJarFile() {
+        return jarFile;
+    }
+
+    
+    /**
+     * Get the extraction
+     *
+     * @return the extraction or null if it failed
+     */
+    public File getDesitionationFile() {
+        return desitionationFile;
+    }
+
+    
+    /**
+     * Get the timing of the extraction
+     *
+     * @return the timing of the extraction
+     */
+    public ExtractionTiming getExtractionTiming() {
+        return extractionTiming;
+    }
+
+    
+    /**
+     * Get the duration in milliseconds
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    
+    /**
+     * Get the error
+     *
+     * @return the error or null if it was successful
+     */
+    public String getError() {
+        return error;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        if (!isSuccess()) {
+            return "FAILED [" + jarFile + "] after " + getDuration() + "ms: " + error;
+        }
+        
+        if (extractionTiming.getFiles() == 0) {
+            return "OK     [" + jarFile + "] -> [" + desitionationFile + "] already extracted";
+        }
+        return "OK     [" + jarFile + "] -> [" + desitionationFile + "] " + extractionTiming.getFiles() + " files, " + extractionTiming.getBytes() + " bytes in " + getDuration() + "ms";
+    }
+}
@@ -109,7 +109,7 @@ public class ProcessStartInformation {
         }
 
         if (!classPath.isBlank()) {
-            if (classPath.endsWith(".-jar")) {
+            if (classPath.endsWith(".jar")) {
                 builder.append("-jar").append(SPACE);
             } else {
                 builder.append("-cp").append(SPACE);
@@ -135,6 +135,40 @@ public class ProcessStartInformation {
     }
 
 
+    /**
+     * Get the command line as list of arguments, e.g. to start it by a {@link ProcessBuilder}.
+     * 
+     * @param newCommand the new command
+     * @return the command line arguments
+     */
+    public List<String> getCommandLineArguments(final String newCommand) {
+        List<String> result = new ArrayList<>();
+        result.add(command);
+        result.addAll(inputArguments);
+
+        if (!bootClassPath.isBlank()) {
+            result.add(bootClassPath);
+        }
+
+        if (!classPath.isBlank()) {
+            if (classPath.endsWith(".jar")) {
+                result.add("-jar");
+            } else {
+                result.add("-cp");
+            }
+            
+            if (newCommand == null || newCommand.isBlank()) {
+                result.add(classPath);
+            } else {
+                result.add(newCommand);
+            }
+        }
+
+        result.addAll(arguments);
+        return result;
+    }
+
+
     /**
      * Get the startup time
      *
@@ -0,0 +1,310 @@
+/*
+ * LaunchRecord.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.launch;
+
+import com.github.toolarium.jer.archive.JarExtractor;
+import com.github.toolarium.jer.archive.JarFingerprint;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+
+/**
+ * A tiny on-disk record of a launch, it keeps the command which was started in a complete extraction. The record is keyed 
+ * by the launch arguments (the java command, the jvm options, the jar and the jer arguments), a launch with the same 
+ * arguments can start the stored command as long as the jar and the extraction are unchanged. The jar is compared by its size, 
+ * its file time and its fingerprint, the fingerprint detects a replaced jar which kept the size and the file time.
+ * This class must not depend on the logging, picocli or jansi since it is used by the {@link Launcher} fast path.
+ *
+ * @author patrick
+ */
+public class LaunchRecord {
+    /** The path of the launch records inside the destination */
+    public static final String LAUNCH_PATH = ".jer-launch";
+    private static final String LAUNCH_SUFFIX = ".launch";
+    private static final String JAR = "jar";
+    private static final String JAR_SIZE = "jarSize";
+    private static final String JAR_LAST_MODIFIED = "jarLastModified";
+    private static final String JAR_FINGERPRINT = "jarFingerprint";
+    private static final String WORKING_PATH = "workingPath";
+    private static final String ARGUMENT = "argument.";
+    private static final String COMMAND = "command.";
+    private File jarFile;
+    private long jarSize;
+    private long jarLastModified;
+    private String jarFingerprint;
+    private File workingPath;
+    private List<String> launchArguments;
+    private List<String> command;
+
+    
+    /**
+     * Constructor for LaunchRecord
+     *
+     * @param jarFile the jar file
+     * @param workingPath the working path, the extraction
+     * @param launchArguments the launch arguments
+     * @param command the command to start
+     * @throws IOException In case the fingerprint of the jar could not be created
+     */
+    public LaunchRecord(File jarFile, File workingPath, List<String> launchArguments, List<String> command) throws IOException {
+        this.jarFile = normalize(jarFile);
+        this.jarSize = jarFile.length();
+        this.jarLastModified = jarFile.lastModified();
+        this.jarFingerprint = JarFingerprint.getInstance().fingerprint(jarFile);
+        this.workingPath = workingPath.getAbsoluteFile();
+        this.launchArguments = new ArrayList<>(launchArguments);
+        this.command = new ArrayList<>(command);
+    }
+
+    
+    /**
+     * Constructor for LaunchRecord
+     */
+    private LaunchRecord() {
+        this.launchArguments = new ArrayList<>();
+        this.command = new ArrayList<>();
+    }
+
+    
+    /**
+     * Get the launch arguments of the current process
+     *
+     * @return the java command followed by all its arguments or null if they are not available
+     */
+    public static List<String> getCurrentLaunchArguments() {
+        ProcessHandle.Info info = ProcessHandle.current().info();
+        if (info.command().isEmpty() || info.arguments().isEmpty()) {
+            return null;
+        }
+        
+        List<String> result = new ArrayList<>();
+        result.add(info.command().get());
+        for (String argument : info.arguments().get()) {
+            result.add(argument);
+        }
+        return result;
+    }
+
+    
+    /**
+     * Get the jar file which runs the current process
+     *
+     * @return the absolute jar file or null if the classes are not loaded from a jar file
+     */
+    public static File getRunningJarFile() {
+        try {
+            CodeSource codeSource = LaunchRecord.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            
+            File jarFile = Path.of(codeSource.getLocation().toURI()).toAbsolutePath().normalize().toFile();
+            if (!jarFile.isFile()) {
+                return null;
+            }
+            return jarFile;
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    
+    /**
+     * Get the record file of a jar and the launch arguments. The same arguments of another jar, e.g. a relative jar
+     * in another directory, have another record.
+     *
+     * @param destinationPath the destination path of the extractions
+     * @param jarFile the jar file
+     * @param launchArguments the launch arguments
+     * @return the record file
+     * @throws IOException In case the key could not be hashed
+     */
+    public static File getRecordFile(File destinationPath, File jarFile, List<String> launchArguments) throws IOException {
+        List<String> key = new ArrayList<>();
+        key.add(normalize(jarFile).getPath());
+        key.addAll(launchArguments);
+        return new File(new File(destinationPath, LAUNCH_PATH), JarFingerprint.getInstance().hash(key) + LAUNCH_SUFFIX);
+    }
+
+    
+    /**
+     * Read a launch record
+     *
+     * @param recordFile the record file
+     * @return the launch record or null if it does not exist
+     * @throws IOException In case of an I/O issue or an invalid record
+     */
+    public static LaunchRecord read(File recordFile) throws IOException {
+        if (!recordFile.isFile()) {
+            return null;
+        }
+        
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(recordFile.toPath())) {
+            properties.load(is);
+        }
+        
+        try {
+            LaunchRecord launchRecord = new LaunchRecord();
+            launchRecord.jarFile = new File(properties.getProperty(JAR));
+            launchRecord.jarSize = Long.parseLong(properties.getProperty(JAR_SIZE));
+            launchRecord.jarLastModified = Long.parseLong(properties.getProperty(JAR_LAST_MODIFIED));
+            launchRecord.jarFingerprint = properties.getProperty(JAR_FINGERPRINT);
+            launchRecord.workingPath = new File(properties.getProperty(WORKING_PATH));
+            launchRecord.launchArguments = readList(properties, ARGUMENT);
+            launchRecord.command = readList(properties, COMMAND);
+            return launchRecord;
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid launch record [" + recordFile + "]: " + e.getMessage(), e);
+        }
+    }
+
+    
+    /**
+     * Write the launch record, the record file is replaced atomically
+     *
+     * @param recordFile the record file
+     * @throws IOException In case of an I/O issue
+     */
+    public void write(File recordFile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(JAR, jarFile.getPath());
+        properties.setProperty(JAR_SIZE, "" + jarSize);
+        properties.setProperty(JAR_LAST_MODIFIED, "" + jarLastModified);
+        properties.setProperty(JAR_FINGERPRINT, jarFingerprint);
+        properties.setProperty(WORKING_PATH, workingPath.getPath());
+        writeList(properties, ARGUMENT, launchArguments);
+        writeList(properties, COMMAND, command);
+        
+        recordFile.getParentFile().mkdirs();
+        Path tempFile = recordFile.toPath().resolveSibling(recordFile.getName() + "." + ProcessHandle.current().pid());
+        try (OutputStream os = Files.newOutputStream(tempFile)) {
+            properties.store(os, "jer launch record");
+        }
+        Files.move(tempFile, recordFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    
+    /**
+     * Check if the stored command can be started: the launch arguments and the jar are the same, the jar is unchanged and 
+     * the extraction is complete
+     *
+     * @param currentLaunchArguments the launch arguments of the current process
+     * @param currentJarFile the jar file of the current process
+     * @return true if the record is valid
+     */
+    public boolean isValid(List<String> currentLaunchArguments, File currentJarFile) {
+        if (!launchArguments.equals(currentLaunchArguments)
+                || currentJarFile == null
+                || !jarFile.equals(normalize(currentJarFile))
+                || command.isEmpty()
+                || jarFile.length() != jarSize
+                || jarFile.lastModified() != jarLastModified
+                || !workingPath.isDirectory()
+                || !new File(workingPath.getPath() + JarExtractor.COMPLETE_SUFFIX).exists()) {
+            return false;
+        }
+        
+        try {
+            return JarFingerprint.getInstance().fingerprint(jarFile).equals(jarFingerprint);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    
+    /**
+     * Get the jar file
+     *
+     * @return the jar file
+     */
+    public File getJarFile() {
+        return jarFile;
+    }
+
+    
+    /**
+     * Get the working path
+     *
+     * @return the working path
+     */
+    public File getWorkingPath() {
+        return workingPath;
+    }
+
+    
+    /**
+     * Get the launch arguments
+     *
+     * @return the launch arguments
+     */
+    public List<String> getLaunchArguments() {
+        return launchArguments;
+    }
+
+    
+    /**
+     * Get the command
+     *
+     * @return the command
+     */
+    public List<String> getCommand() {
+        return command;
+    }
+
+    
+    /**
+     * Read a list from the properties
+     *
+     * @param properties the properties
+     * @param prefix the prefix of the list entries
+     * @return the list
+     */
+    private static List<String> readList(Properties properties, String prefix) {
+        List<String> result = new ArrayList<>();
+        String value = properties.getProperty(prefix + result.size());
+        while (value != null) {
+            result.add(value);
+            value = properties.getProperty(prefix + result.size());
+        }
+        return result;
+    }
+
+    
+    /**
+     * Write a list to the properties
+     *
+     * @param properties the properties
+     * @param prefix the prefix of the list entries
+     * @param list the list
+     */
+    private static void writeList(Properties properties, String prefix, List<String> list) {
+        for (int i = 0; i < list.size(); i++) {
+            properties.setProperty(prefix + i, list.get(i));
+        }
+    }
+
+    
+    /**
+     * Normalize a file
+     *
+     * @param file the file
+     * @return the absolute and normalized file
+     */
+    private static File normalize(File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+}
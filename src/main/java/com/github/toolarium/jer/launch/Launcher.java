@@ -0,0 +1,147 @@
+/*
+ * Launcher.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.launch;
+
+import com.github.toolarium.jer.Main;
+import com.github.toolarium.jer.archive.ExtractionUsage;
+import com.github.toolarium.jer.archive.JarExtractor;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+
+/**
+ * The lean entry point of jer. On a warm cache it starts the command of a valid {@link LaunchRecord} without initializing 
+ * picocli, jansi, the logging or the process start information. In all other cases, e.g. help, version, a changed jar 
+ * or a missing record, it continues with the {@link Main}, which writes the record for the next launch.
+ *
+ * @author patrick
+ */
+public final class Launcher {
+    private static final String DESTINATION_OPTION = "-d";
+    private static final String DESTINATION_LONG_OPTION = "--destination";
+    private static final String END_OF_OPTIONS = "--";
+
+    
+    /**
+     * Constructor for Launcher
+     */
+    private Launcher() {
+        // NOP
+    }
+
+    
+    /**
+     * The main 
+     *
+     * @param args the arguments
+     * @throws IllegalAccessException In case the file can not be accessed
+     * @throws IOException In case of an I/O issue
+     */
+    public static void main(String[] args) throws IllegalAccessException, IOException {
+        Integer exitCode = launch(args);
+        if (exitCode != null) {
+            System.exit(exitCode); // CHECKSTYLE IGNORE THIS LINE
+        }
+        
+        Main.main(args);
+    }
+
+    
+    /**
+     * Start the command of a valid launch record and wait until it ends
+     *
+     * @param args the arguments
+     * @return the exit code of the command or null if there is no valid launch record
+     */
+    static Integer launch(String[] args) {
+        List<String> launchArguments = LaunchRecord.getCurrentLaunchArguments();
+        File jarFile = LaunchRecord.getRunningJarFile();
+        if (launchArguments == null || jarFile == null) {
+            return null;
+        }
+        
+        ExtractionUsage extractionUsage = null;
+        Process process;
+        try {
+            LaunchRecord launchRecord = LaunchRecord.read(LaunchRecord.getRecordFile(getDestinationPath(args), jarFile, launchArguments));
+            if (launchRecord == null || !launchRecord.isValid(launchArguments, jarFile)) {
+                return null;
+            }
+            
+            // the extraction is used until the command ends, it could have been removed before it was locked
+            extractionUsage = ExtractionUsage.use(launchRecord.getWorkingPath());
+            if (!new File(launchRecord.getWorkingPath().getPath() + JarExtractor.COMPLETE_SUFFIX).exists()) {
+                close(extractionUsage);
+                return null;
+            }
+            
+            process = new ProcessBuilder(launchRecord.getCommand()).directory(launchRecord.getWorkingPath()).inheritIO().start();
+        } catch (IOException | RuntimeException e) {
+            // the slow path reports the issue
+            close(extractionUsage);
+            return null;
+        }
+        
+        // the command runs in place of jer, it ends together with jer
+        Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+        try {
+            while (true) {
+                try {
+                    return process.waitFor();
+                } catch (InterruptedException e) {
+                    // NOP, wait until the command ends
+                }
+            }
+        } finally {
+            close(extractionUsage);
+        }
+    }
+
+    
+    /**
+     * Close the usage of an extraction
+     *
+     * @param extractionUsage the extraction usage or null
+     */
+    private static void close(ExtractionUsage extractionUsage) {
+        if (extractionUsage == null) {
+            return;
+        }
+        
+        try {
+            extractionUsage.close();
+        } catch (IOException e) {
+            // NOP, the lock is released when the process ends
+        }
+    }
+
+    
+    /**
+     * Get the destination path of the extractions from the arguments
+     *
+     * @param args the arguments
+     * @return the destination path, by default the system temp
+     */
+    static File getDestinationPath(String[] args) {
+        String destination = System.getProperty("java.io.tmpdir");
+        for (int i = 0; i < args.length; i++) {
+            String argument = args[i];
+            if (END_OF_OPTIONS.equals(argument)) {
+                break;
+            }
+            
+            if ((DESTINATION_OPTION.equals(argument) || DESTINATION_LONG_OPTION.equals(argument)) && i + 1 < args.length) {
+                destination = args[i + 1];
+            } else if (argument.startsWith(DESTINATION_OPTION + "=")) {
+                destination = argument.substring(DESTINATION_OPTION.length() + 1);
+            } else if (argument.startsWith(DESTINATION_LONG_OPTION + "=")) {
+                destination = argument.substring(DESTINATION_LONG_OPTION.length() + 1);
+            }
+        }
+        return new File(destination);
+    }
+}
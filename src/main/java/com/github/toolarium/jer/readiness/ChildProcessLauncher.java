@@ -0,0 +1,160 @@
+/*
+ * ChildProcessLauncher.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Starts a child process and waits until all readiness probes are ready. Without any probe the child process 
+ * is ready when it ends. The output of the child process is forwarded to the standard output.
+ * 
+ * @author patrick
+ */
+public class ChildProcessLauncher {
+    private static final Logger LOG = LoggerFactory.getLogger(ChildProcessLauncher.class);
+    private static final long POLL_INTERVAL = 10;
+    private static final long OUTPUT_DRAIN_TIMEOUT = 1000;
+    private List<IReadinessProbe> readinessProbes;
+    private long timeout;
+    private PrintStream output;
+    private Thread outputForwarder;
+
+    
+    /**
+     * Constructor for ChildProcessLauncher
+     *
+     * @param readinessProbes the readiness probes
+     * @param timeout the timeout in milliseconds to wait for the readiness
+     */
+    public ChildProcessLauncher(List<IReadinessProbe> readinessProbes, long timeout) {
+        this.readinessProbes = readinessProbes;
+        this.timeout = timeout;
+        this.output = new PrintStream(new FileOutputStream(FileDescriptor.out), true);
+        this.outputForwarder = null;
+    }
+
+    
+    /**
+     * Start the child process and wait until it is ready
+     *
+     * @param command the command
+     * @param workingPath the working path
+     * @param measurement the measurement to record the spawn and boot duration
+     * @return the started process
+     * @throws IOException In case the process could not be started or was not ready in time
+     * @throws InterruptedException In case the waiting was interrupted
+     */
+    public Process start(List<String> command, File workingPath, StartupMeasurement measurement) throws IOException, InterruptedException {
+        for (IReadinessProbe readinessProbe : readinessProbes) {
+            readinessProbe.reset();
+        }
+        
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(workingPath)
+                                                     .redirectInput(ProcessBuilder.Redirect.INHERIT)
+                                                     .redirectError(ProcessBuilder.Redirect.INHERIT)
+                                                     .start();
+        long spawned = System.nanoTime();
+        measurement.setSpawnNanos(spawned - start);
+        outputForwarder = startOutputForwarder(process);
+        
+        long end = spawned + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (!isReady(process)) {
+            if (!process.isAlive()) {
+                // the ready output may still be in the pipe
+                outputForwarder.join(OUTPUT_DRAIN_TIMEOUT);
+                if (isReady(process)) {
+                    break;
+                }
+                
+                throw new IOException("The process ended with exit code " + process.exitValue() + " before it was ready!");
+            }
+            
+            if (System.nanoTime() > end) {
+                process.destroy();
+                throw new IOException("The process was not ready within " + timeout + "ms: " + readinessProbes);
+            }
+            
+            Thread.sleep(POLL_INTERVAL);
+        }
+        
+        measurement.setBootNanos(System.nanoTime() - spawned);
+        return process;
+    }
+
+    
+    /**
+     * Wait until the started child process ends and its remaining output is forwarded
+     *
+     * @param process the process
+     * @return the exit code of the process
+     * @throws InterruptedException In case the waiting was interrupted
+     */
+    public int waitFor(Process process) throws InterruptedException {
+        int exitCode = process.waitFor();
+        if (outputForwarder != null) {
+            outputForwarder.join(OUTPUT_DRAIN_TIMEOUT);
+        }
+        return exitCode;
+    }
+
+    
+    /**
+     * Check if all readiness probes are ready
+     *
+     * @param process the process
+     * @return true if all readiness probes are ready
+     */
+    private boolean isReady(Process process) {
+        if (readinessProbes.isEmpty()) {
+            return !process.isAlive();
+        }
+        
+        for (IReadinessProbe readinessProbe : readinessProbes) {
+            if (!readinessProbe.isReady()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    
+    /**
+     * Start the thread which forwards the output of the process and passes it to the readiness probes
+     *
+     * @param process the process
+     * @return the started thread
+     */
+    private Thread startOutputForwarder(Process process) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.println(line);
+                    for (IReadinessProbe readinessProbe : readinessProbes) {
+                        readinessProbe.onOutput(line);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug("Could not read the output of the process: " + e.getMessage(), e);
+            }
+        }, "jer-output");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
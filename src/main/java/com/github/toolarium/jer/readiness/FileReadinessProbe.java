@@ -0,0 +1,69 @@
+/*
+ * FileReadinessProbe.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import java.io.File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The child process is ready as soon as a file exists. An already existing file is deleted before the child process is started.
+ * 
+ * @author patrick
+ */
+public class FileReadinessProbe implements IReadinessProbe {
+    private static final Logger LOG = LoggerFactory.getLogger(FileReadinessProbe.class);
+    private File file;
+
+    
+    /**
+     * Constructor for FileReadinessProbe
+     *
+     * @param file the file
+     */
+    public FileReadinessProbe(File file) {
+        this.file = file;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#reset()
+     */
+    @Override
+    public void reset() {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("Could not delete the ready file [" + file + "]!");
+        }
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#onOutput(java.lang.String)
+     */
+    @Override
+    public void onOutput(String line) {
+        // NOP
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#isReady()
+     */
+    @Override
+    public boolean isReady() {
+        return file.exists();
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "file [" + file + "]";
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * IReadinessProbe.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+
+/**
+ * Defines a probe which detects when a started child process is ready.
+ * 
+ * @author patrick
+ */
+public interface IReadinessProbe {
+    
+    /**
+     * Reset the probe before the child process is started.
+     */
+    void reset();
+
+    
+    /**
+     * Called for every output line of the child process.
+     *
+     * @param line the output line
+     */
+    void onOutput(String line);
+
+    
+    /**
+     * Check if the child process is ready.
+     *
+     * @return true if the child process is ready
+     */
+    boolean isReady();
+}
@@ -0,0 +1,68 @@
+/*
+ * OutputPatternReadinessProbe.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import java.util.regex.Pattern;
+
+
+/**
+ * The child process is ready as soon as an output line matches the pattern.
+ * 
+ * @author patrick
+ */
+public class OutputPatternReadinessProbe implements IReadinessProbe {
+    private Pattern pattern;
+    private volatile boolean ready;
+
+    
+    /**
+     * Constructor for OutputPatternReadinessProbe
+     *
+     * @param regex the regular expression
+     */
+    public OutputPatternReadinessProbe(String regex) {
+        this.pattern = Pattern.compile(regex);
+        this.ready = false;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#reset()
+     */
+    @Override
+    public void reset() {
+        ready = false;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#onOutput(java.lang.String)
+     */
+    @Override
+    public void onOutput(String line) {
+        if (!ready && pattern.matcher(line).find()) {
+            ready = true;
+        }
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#isReady()
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "output [" + pattern + "]";
+    }
+}
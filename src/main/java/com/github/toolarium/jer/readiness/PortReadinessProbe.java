@@ -0,0 +1,73 @@
+/*
+ * PortReadinessProbe.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+
+/**
+ * The child process is ready as soon as a local TCP port accepts connections.
+ * 
+ * @author patrick
+ */
+public class PortReadinessProbe implements IReadinessProbe {
+    private static final int CONNECT_TIMEOUT = 100;
+    private int port;
+
+    
+    /**
+     * Constructor for PortReadinessProbe
+     *
+     * @param port the local port
+     */
+    public PortReadinessProbe(int port) {
+        this.port = port;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#reset()
+     */
+    @Override
+    public void reset() {
+        // NOP
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#onOutput(java.lang.String)
+     */
+    @Override
+    public void onOutput(String line) {
+        // NOP
+    }
+
+    
+    /**
+     * @see com.github.toolarium.jer.readiness.IReadinessProbe#isReady()
+     */
+    @Override
+    public boolean isReady() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "port [" + port + "]";
+    }
+}
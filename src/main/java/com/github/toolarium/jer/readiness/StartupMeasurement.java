@@ -0,0 +1,131 @@
+/*
+ * StartupMeasurement.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+
+/**
+ * The time to ready of a child process, broken down into its phases.
+ * 
+ * @author patrick
+ */
+public class StartupMeasurement {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private long launcherNanos;
+    private long extractionNanos;
+    private long spawnNanos;
+    private long bootNanos;
+
+    
+    /**
+     * Constructor for StartupMeasurement
+     */
+    public StartupMeasurement() {
+        launcherNanos = 0;
+        extractionNanos = 0;
+        spawnNanos = 0;
+        bootNanos = 0;
+    }
+
+    
+    /**
+     * Get the launcher duration, from the start of the launcher process until the extraction starts.
+     *
+     * @return the launcher duration in nanoseconds
+     */
+    public long getLauncherNanos() {
+        return launcherNanos;
+    }
+
+    
+    /**
+     * Set the launcher duration
+     *
+     * @param launcherNanos the launcher duration in nanoseconds
+     */
+    public void setLauncherNanos(long launcherNanos) {
+        this.launcherNanos = launcherNanos;
+    }
+
+    
+    /**
+     * Get the extraction duration
+     *
+     * @return the extraction duration in nanoseconds
+     */
+    public long getExtractionNanos() {
+        return extractionNanos;
+    }
+
+    
+    /**
+     * Set the extraction duration
+     *
+     * @param extractionNanos the extraction duration in nanoseconds
+     */
+    public void setExtractionNanos(long extractionNanos) {
+        this.extractionNanos = extractionNanos;
+    }
+
+    
+    /**
+     * Get the spawn duration, until the child process is created.
+     *
+     * @return the spawn duration in nanoseconds
+     */
+    public long getSpawnNanos() {
+        return spawnNanos;
+    }
+
+    
+    /**
+     * Set the spawn duration
+     *
+     * @param spawnNanos the spawn duration in nanoseconds
+     */
+    public void setSpawnNanos(long spawnNanos) {
+        this.spawnNanos = spawnNanos;
+    }
+
+    
+    /**
+     * Get the boot duration, from the created child process until it is ready.
+     *
+     * @return the boot duration in nanoseconds
+     */
+    public long getBootNanos() {
+        return bootNanos;
+    }
+
+    
+    /**
+     * Set the boot duration
+     *
+     * @param bootNanos the boot duration in nanoseconds
+     */
+    public void setBootNanos(long bootNanos) {
+        this.bootNanos = bootNanos;
+    }
+
+    
+    /**
+     * Get the time to ready
+     *
+     * @return the time to ready in nanoseconds
+     */
+    public long getTimeToReadyNanos() {
+        return launcherNanos + extractionNanos + spawnNanos + bootNanos;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return (getTimeToReadyNanos() / NANOS_PER_MILLI) + "ms (launcher: " + (launcherNanos / NANOS_PER_MILLI) + "ms, extraction: " + (extractionNanos / NANOS_PER_MILLI)  
+               + "ms, spawn: " + (spawnNanos / NANOS_PER_MILLI) + "ms, boot: " + (bootNanos / NANOS_PER_MILLI) + "ms)";
+    }
+}
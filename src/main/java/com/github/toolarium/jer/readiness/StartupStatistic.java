@@ -0,0 +1,104 @@
+/*
+ * StartupStatistic.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+
+/**
+ * Collects the {@link StartupMeasurement} of several runs and calculates the percentiles.
+ * 
+ * @author patrick
+ */
+public class StartupStatistic {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final double[] PERCENTILES = {50, 90, 99, 100};
+    private List<StartupMeasurement> measurements;
+
+    
+    /**
+     * Constructor for StartupStatistic
+     */
+    public StartupStatistic() {
+        measurements = new ArrayList<>();
+    }
+
+    
+    /**
+     * Add a measurement
+     *
+     * @param measurement the measurement
+     */
+    public void add(StartupMeasurement measurement) {
+        measurements.add(measurement);
+    }
+
+    
+    /**
+     * Get the measurements
+     *
+     * @return the measurements
+     */
+    public List<StartupMeasurement> getMeasurements() {
+        return measurements;
+    }
+
+    
+    /**
+     * Get the percentile of a phase by the nearest rank method
+     *
+     * @param phase the phase, e.g. StartupMeasurement::getBootNanos
+     * @param percentile the percentile between 0 and 100
+     * @return the percentile in nanoseconds
+     */
+    public long percentile(ToLongFunction<StartupMeasurement> phase, double percentile) {
+        if (measurements.isEmpty()) {
+            return 0;
+        }
+        
+        long[] values = measurements.stream().mapToLong(phase).toArray();
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100.0 * values.length);
+        return values[Math.min(values.length - 1, Math.max(0, rank - 1))];
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(measurements.size()).append(" runs, p50/p90/p99/max in ms");
+        append(builder, "time to ready", StartupMeasurement::getTimeToReadyNanos);
+        append(builder, "launcher", StartupMeasurement::getLauncherNanos);
+        append(builder, "extraction", StartupMeasurement::getExtractionNanos);
+        append(builder, "spawn", StartupMeasurement::getSpawnNanos);
+        append(builder, "boot", StartupMeasurement::getBootNanos);
+        return builder.toString();
+    }
+
+    
+    /**
+     * Append the percentiles of a phase
+     *
+     * @param builder the builder
+     * @param name the name of the phase
+     * @param phase the phase
+     */
+    private void append(StringBuilder builder, String name, ToLongFunction<StartupMeasurement> phase) {
+        builder.append("\n    ").append(name).append(": ");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (i > 0) {
+                builder.append(" / ");
+            }
+            builder.append(percentile(phase, PERCENTILES[i]) / NANOS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * FileSyncUtil.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+/**
+ * File synchronisation util class
+ *
+ * @author patrick
+ */
+public final class FileSyncUtil {
+    /**
+     * Private class, the only instance of the singelton which will be created by accessing the holder class.
+     *
+     * @author patrick
+     */
+    private static class HOLDER {
+        static final FileSyncUtil INSTANCE = new FileSyncUtil();
+    }
+
+
+    /**
+     * Constructor
+     */
+    private FileSyncUtil() {
+        // NOP
+    }
+
+
+    /**
+     * Get the instance
+     *
+     * @return the instance
+     */
+    public static FileSyncUtil getInstance() {
+        return HOLDER.INSTANCE;
+    }
+
+    
+    /**
+     * Synchronize the content of a file to the disk
+     *
+     * @param file the file
+     * @throws IOException In case of an I/O issue
+     */
+    public void sync(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    
+    /**
+     * Synchronize a directory to the disk, this persists the created, renamed or deleted entries of the directory.
+     * Not all platforms support to synchronize a directory, in this case it will be ignored.
+     *
+     * @param directory the directory
+     */
+    public void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // NOP, e.g. on windows directories can not be opened
+        }
+    }
+
+    
+    /**
+     * Synchronize the files in parallel and afterwards each directory once
+     *
+     * @param files the files to synchronize
+     * @param directories the directories to synchronize
+     * @param parallelism the number of parallel workers
+     * @throws IOException In case of an I/O issue
+     */
+    public void sync(Collection<File> files, Collection<File> directories, int parallelism) throws IOException {
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (File file : files) {
+                results.add(executorService.submit(() -> {
+                    sync(file);
+                    return null;
+                }));
+            }
+            waitFor(results);
+
+            results.clear();
+            for (File directory : directories) {
+                results.add(executorService.submit(() -> syncDirectory(directory)));
+            }
+            waitFor(results);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    
+    /**
+     * Synchronize the files as tasks of a shared pool and afterwards each directory once
+     *
+     * @param files the files to synchronize
+     * @param directories the directories to synchronize
+     * @param forkJoinPool the pool
+     * @throws IOException In case of an I/O issue
+     */
+    public void sync(Collection<File> files, Collection<File> directories, ForkJoinPool forkJoinPool) throws IOException {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (File file : files) {
+            tasks.add(() -> {
+                sync(file);
+                return null;
+            });
+        }
+        invokeAll(forkJoinPool, tasks);
+        
+        tasks = new ArrayList<>();
+        for (File directory : directories) {
+            tasks.add(() -> {
+                syncDirectory(directory);
+                return null;
+            });
+        }
+        invokeAll(forkJoinPool, tasks);
+    }
+
+    
+    /**
+     * Run the tasks in the pool and wait for them
+     *
+     * @param forkJoinPool the pool
+     * @param tasks the tasks
+     * @throws IOException In case of an I/O issue
+     */
+    private void invokeAll(ForkJoinPool forkJoinPool, List<Callable<Object>> tasks) throws IOException {
+        try {
+            ForkJoinUtil.getInstance().invokeAll(forkJoinPool, tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted synchronisation!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not synchronize: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    
+    /**
+     * Wait for the results
+     *
+     * @param results the results
+     * @throws IOException In case of an I/O issue
+     */
+    private void waitFor(List<Future<?>> results) throws IOException {
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted synchronisation!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not synchronize: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * ForkJoinUtil.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+/**
+ * Fork join util class, runs the tasks of a stage in a shared pool. Inside the pool the calling worker runs and steals
+ * tasks while it waits, outside of the pool the caller waits for the tasks.
+ *
+ * @author patrick
+ */
+public final class ForkJoinUtil {
+    /**
+     * Private class, the only instance of the singelton which will be created by accessing the holder class.
+     *
+     * @author patrick
+     */
+    private static class HOLDER {
+        static final ForkJoinUtil INSTANCE = new ForkJoinUtil();
+    }
+
+
+    /**
+     * Constructor
+     */
+    private ForkJoinUtil() {
+        // NOP
+    }
+
+
+    /**
+     * Get the instance
+     *
+     * @return the instance
+     */
+    public static ForkJoinUtil getInstance() {
+        return HOLDER.INSTANCE;
+    }
+
+
+    /**
+     * Run the tasks in the pool and wait until all are done
+     *
+     * @param <T> the type of the results
+     * @param forkJoinPool the pool
+     * @param tasks the tasks
+     * @return the results in the order of the tasks
+     * @throws InterruptedException In case the waiting was interrupted
+     * @throws ExecutionException In case a task failed, the cause is the exception of the task
+     */
+    public <T> List<T> invokeAll(ForkJoinPool forkJoinPool, List<Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        boolean inPool = ForkJoinTask.getPool() == forkJoinPool;
+        List<ForkJoinTask<T>> forkJoinTasks = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            ForkJoinTask<T> forkJoinTask = ForkJoinTask.adapt(task);
+            if (inPool) {
+                forkJoinTask.fork();
+            } else {
+                forkJoinPool.execute(forkJoinTask);
+            }
+            forkJoinTasks.add(forkJoinTask);
+        }
+
+        // the last forked task is joined first, the worker runs it itself
+        List<T> results = new ArrayList<>(Collections.nCopies(forkJoinTasks.size(), null));
+        try {
+            for (int i = forkJoinTasks.size() - 1; i >= 0; i--) {
+                results.set(i, forkJoinTasks.get(i).get());
+            }
+        } catch (ExecutionException e) {
+            for (ForkJoinTask<T> forkJoinTask : forkJoinTasks) {
+                forkJoinTask.cancel(false);
+            }
+
+            // a checked exception of a task is wrapped by the adapter, an exception of another thread is wrapped by a copy of its type
+            Throwable cause = e.getCause();
+            while (cause != null && cause.getCause() != null 
+                    && (cause.getClass() == RuntimeException.class || cause.getClass() == cause.getCause().getClass())) {
+                cause = cause.getCause();
+            }
+            throw new ExecutionException(cause);
+        }
+        return results;
+    }
+}
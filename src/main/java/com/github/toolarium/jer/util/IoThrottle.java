@@ -0,0 +1,297 @@
+/*
+ * IoThrottle.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Limits the written bytes and files per second by token buckets, an instance is shared by all workers which write to the disk.
+ * The bucket holds at most the budget of one second. In adaptive mode the byte rate is raised step by step as long as 
+ * the sync latency of the written files stays low and it falls back to the configured rate as soon as the latency rises.
+ * A write returns as soon as the data is in the page cache, only a sync waits for the device. If the written files are 
+ * not synchronized, no sync is forced: the adaptive mode uses the write latency instead, a write blocks as soon as 
+ * the device can not keep up with the dirty pages.
+ *
+ * @author patrick
+ */
+public class IoThrottle {
+    private static final Logger LOG = LoggerFactory.getLogger(IoThrottle.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long ADJUST_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final long SAMPLE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long DEFAULT_LOW_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int MAX_RATE_FACTOR = 8;
+    private static final double INCREASE_FACTOR = 1.25;
+    private static final double LATENCY_WEIGHT = 0.2;
+    private String name;
+    private long bytesPerSecond;
+    private long filesPerSecond;
+    private boolean adaptive;
+    private boolean writeLatency;
+    private long lowLatency;
+    private long adjustInterval;
+    private double currentBytesPerSecond;
+    private double byteTokens;
+    private double fileTokens;
+    private long lastRefill;
+    private double averageLatency;
+    private long lastAdjustment;
+    private long lastSample;
+
+    
+    /**
+     * Constructor for IoThrottle
+     *
+     * @param name the name
+     * @param bytesPerSecond the bytes per second or 0 for unlimited
+     * @param filesPerSecond the files per second or 0 for unlimited
+     * @param adaptive true to raise the byte rate while the sync latency is low
+     */
+    public IoThrottle(String name, long bytesPerSecond, long filesPerSecond, boolean adaptive) {
+        this.name = name;
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        this.filesPerSecond = Math.max(0, filesPerSecond);
+        this.adaptive = adaptive;
+        this.writeLatency = false;
+        this.lowLatency = DEFAULT_LOW_LATENCY;
+        this.adjustInterval = ADJUST_INTERVAL;
+        this.currentBytesPerSecond = this.bytesPerSecond;
+        this.byteTokens = this.bytesPerSecond;
+        this.fileTokens = this.filesPerSecond;
+        this.lastRefill = System.nanoTime();
+        this.averageLatency = 0;
+        this.lastAdjustment = lastRefill;
+        this.lastSample = lastRefill - SAMPLE_INTERVAL;
+    }
+
+    
+    /**
+     * Check if the throttle limits anything
+     *
+     * @return true if the bytes or files are limited
+     */
+    public boolean isLimited() {
+        return bytesPerSecond > 0 || filesPerSecond > 0;
+    }
+
+    
+    /**
+     * Set the sync latency below which the adaptive mode raises the byte rate
+     *
+     * @param lowLatency the latency in nanoseconds
+     */
+    public void setLowLatency(long lowLatency) {
+        this.lowLatency = lowLatency;
+    }
+
+    
+    /**
+     * Set the minimal time between two adjustments of the byte rate
+     *
+     * @param adjustInterval the interval in nanoseconds
+     */
+    void setAdjustInterval(long adjustInterval) {
+        this.adjustInterval = adjustInterval;
+    }
+
+    
+    /**
+     * Set if the adaptive mode uses the write latency instead of sampled syncs, e.g. if the written files are not synchronized
+     *
+     * @param writeLatency true to use the write latency
+     */
+    public void setWriteLatency(boolean writeLatency) {
+        this.writeLatency = writeLatency;
+    }
+
+    
+    /**
+     * Acquire the budget to write bytes, it blocks until the budget is available
+     *
+     * @param bytes the number of bytes
+     */
+    public void acquireBytes(long bytes) {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        
+        long waitTime;
+        synchronized (this) {
+            refill();
+            byteTokens -= bytes;
+            waitTime = getWaitTime(byteTokens, currentBytesPerSecond);
+        }
+        sleep(waitTime);
+    }
+
+    
+    /**
+     * Acquire the budget to create a file, it blocks until the budget is available
+     */
+    public void acquireFile() {
+        if (filesPerSecond <= 0) {
+            return;
+        }
+        
+        long waitTime;
+        synchronized (this) {
+            refill();
+            fileTokens -= 1;
+            waitTime = getWaitTime(fileTokens, filesPerSecond);
+        }
+        sleep(waitTime);
+    }
+
+    
+    /**
+     * Sample the sync latency of a written file in adaptive mode, at most one file per sample interval is synchronized.
+     *
+     * @param channel the channel of the written file
+     * @throws IOException In case of an I/O issue
+     */
+    public void sampleSyncLatency(FileChannel channel) throws IOException {
+        if (!adaptive || writeLatency || bytesPerSecond <= 0) {
+            return;
+        }
+        
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - lastSample < SAMPLE_INTERVAL) {
+                return;
+            }
+            lastSample = now;
+        }
+        
+        long start = System.nanoTime();
+        channel.force(false);
+        recordSyncLatency(System.nanoTime() - start);
+    }
+
+    
+    /**
+     * Record the latency of a sync of written data to the device, it is used in adaptive mode to adjust the byte rate
+     *
+     * @param latency the latency in nanoseconds
+     */
+    public void recordSyncLatency(long latency) {
+        if (!adaptive || writeLatency || bytesPerSecond <= 0) {
+            return;
+        }
+        recordLatency(latency);
+    }
+
+    
+    /**
+     * Record the latency of a write, it is used in adaptive mode to adjust the byte rate if the write latency is used
+     *
+     * @param latency the latency in nanoseconds
+     */
+    public void recordWriteLatency(long latency) {
+        if (!adaptive || !writeLatency || bytesPerSecond <= 0) {
+            return;
+        }
+        recordLatency(latency);
+    }
+
+    
+    /**
+     * Get the current byte rate
+     *
+     * @return the current bytes per second, 0 for unlimited
+     */
+    public synchronized long getCurrentBytesPerSecond() {
+        return Math.round(currentBytesPerSecond);
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return name + " (" + bytesPerSecond + " bytes/s, " + filesPerSecond + " files/s, adaptive " + adaptive + ")";
+    }
+
+    
+    /**
+     * Record a latency, the byte rate is adjusted to the average latency once per adjust interval
+     *
+     * @param latency the latency in nanoseconds
+     */
+    private synchronized void recordLatency(long latency) {
+        averageLatency = LATENCY_WEIGHT * latency + (1 - LATENCY_WEIGHT) * averageLatency;
+        long now = System.nanoTime();
+        if (now - lastAdjustment < adjustInterval) {
+            return;
+        }
+        
+        lastAdjustment = now;
+        double previousBytesPerSecond = currentBytesPerSecond;
+        if (averageLatency < lowLatency) {
+            currentBytesPerSecond = Math.min(currentBytesPerSecond * INCREASE_FACTOR, (double) bytesPerSecond * MAX_RATE_FACTOR);
+        } else {
+            currentBytesPerSecond = bytesPerSecond;
+        }
+        
+        if (previousBytesPerSecond != currentBytesPerSecond) {
+            String source = "sync";
+            if (writeLatency) {
+                source = "write";
+            }
+            LOG.debug("Throttle [" + name + "]: " + Math.round(currentBytesPerSecond) + " bytes/s (" + source + " latency " + Math.round(averageLatency / 1000) + "us).");
+        }
+    }
+
+    
+    /**
+     * Refill the token buckets, they hold at most the budget of one second
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsed = (double) (now - lastRefill) / NANOS_PER_SECOND;
+        lastRefill = now;
+        byteTokens = Math.min(currentBytesPerSecond, byteTokens + elapsed * currentBytesPerSecond);
+        fileTokens = Math.min(filesPerSecond, fileTokens + elapsed * filesPerSecond);
+    }
+
+    
+    /**
+     * Get the time to wait until the tokens are no longer negative
+     *
+     * @param tokens the tokens
+     * @param rate the rate per second
+     * @return the wait time in nanoseconds
+     */
+    private long getWaitTime(double tokens, double rate) {
+        if (tokens >= 0 || rate <= 0) {
+            return 0;
+        }
+        return (long) (-tokens / rate * NANOS_PER_SECOND);
+    }
+
+    
+    /**
+     * Sleep
+     *
+     * @param nanos the time to sleep in nanoseconds
+     */
+    private void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -14,6 +14,8 @@ import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 
 /**
@@ -22,6 +24,11 @@ import java.nio.channels.WritableByteChannel;
  * @author patrick
  */
 public final class StreamUtil {
+    private static final int BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 256;
+    private BlockingQueue<ByteBuffer> bufferPool;
+
+    
     /**
      * Private class, the only instance of the singelton which will be created by accessing the holder class.
      *
@@ -36,7 +43,8 @@ public final class StreamUtil {
      * Constructor
      */
     private StreamUtil() {
-        // NOP
+        // the copy buffers are shared by all workers, e.g. of a batch extraction
+        bufferPool = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
     }
 
 
@@ -101,6 +109,20 @@ public final class StreamUtil {
         return channelCopy(Channels.newChannel(src), Channels.newChannel(dest));
     }
 
+    
+    /**
+     * This method copies data from the src and writes it to the dest until EOF on src, the writes are limited by the throttle.
+     * 
+     * @param src the source stream
+     * @param dest the destination stream
+     * @param ioThrottle the throttle or null
+     * @return the copied bytes
+     * @exception IOException in case of error
+     */
+    public long channelCopy(InputStream src, OutputStream dest, IoThrottle ioThrottle) throws IOException {
+        return channelCopy(Channels.newChannel(src), Channels.newChannel(dest), ioThrottle);
+    }
+
 
     /**
      * This method copies data from the src channel and writes it to the dest channel until EOF on src. 
@@ -113,15 +135,63 @@ public final class StreamUtil {
      * @exception IOException in case of error
      */
     public long channelCopy(ReadableByteChannel src, WritableByteChannel dest) throws IOException {
-        ByteBuffer buffer = ByteBuffer.allocate(4 * 1024);
+        return channelCopy(src, dest, null);
+    }
+
+    
+    /**
+     * This method copies data from the src channel and writes it to the dest channel until EOF on src, the writes are limited by the throttle. 
+     * This implementation makes use of compact() on the temp buffer to pack down the data if the buffer wasn't fully drained.  
+     * This may result in data copying, but minimizes system calls. It also requires a cleanup loop to make sure all the data gets sent.
+     * 
+     * @param src the source channel
+     * @param dest the destination channel
+     * @param ioThrottle the throttle or null
+     * @return the copied bytes
+     * @exception IOException in case of error
+     */
+    public long channelCopy(ReadableByteChannel src, WritableByteChannel dest, IoThrottle ioThrottle) throws IOException {
+        ByteBuffer buffer = bufferPool.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        
+        try {
+            return channelCopy(src, dest, ioThrottle, buffer);
+        } finally {
+            buffer.clear();
+            bufferPool.offer(buffer);
+        }
+    }
+
+    
+    /**
+     * This method copies data from the src channel and writes it to the dest channel by the given buffer.
+     * 
+     * @param src the source channel
+     * @param dest the destination channel
+     * @param ioThrottle the throttle or null
+     * @param buffer the empty buffer
+     * @return the copied bytes
+     * @exception IOException in case of error
+     */
+    private long channelCopy(ReadableByteChannel src, WritableByteChannel dest, IoThrottle ioThrottle, ByteBuffer buffer) throws IOException {
         long size = 0;
 
         while (src.read(buffer) != -1) {
             // prepare the buffer to be drained
             buffer.flip();
 
+            if (ioThrottle != null) {
+                ioThrottle.acquireBytes(buffer.remaining());
+            }
+            
             // write to the channel, may block
+            long start = System.nanoTime();
             size += dest.write(buffer);
+            if (ioThrottle != null) {
+                ioThrottle.recordWriteLatency(System.nanoTime() - start);
+            }
 
             // If partial transfer, shift remainder down
             // If buffer is empty, same as doing clear()
@@ -133,6 +203,9 @@ public final class StreamUtil {
 
         // make sure the buffer is fully drained.
         while (buffer.hasRemaining()) {
+            if (ioThrottle != null) {
+                ioThrottle.acquireBytes(buffer.remaining());
+            }
             size += dest.write(buffer);
         }
         
@@ -0,0 +1,289 @@
+/*
+ * JarWatcher.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.watch;
+
+import com.github.toolarium.jer.archive.ExtractionCleaner;
+import com.github.toolarium.jer.archive.JarExtractor;
+import com.github.toolarium.jer.archive.NestedJarRepacker;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Watches drop directories for new or replaced jars and extracts them in the background, the first launch finds a ready 
+ * extraction. A jar is extracted as soon as it stops changing, the extractions of its previous versions are removed.
+ * The pre-extraction competes with the running applications, it is limited by the throttle of the supplied extractors, 
+ * e.g. the background throttle. A lower thread priority would not limit it: Linux ignores the java thread priorities 
+ * and the stages of an extraction run on their own workers.
+ *
+ * @author patrick
+ */
+public class JarWatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(JarWatcher.class);
+    private static final String JAR_SUFFIX = ".jar";
+    private static final long POLL_INTERVAL = 200;
+    private static final long CLEANUP_TIMEOUT = 60000;
+    private List<File> directories;
+    private String destination;
+    private String jarResourcePath;
+    private Supplier<JarExtractor> jarExtractorSupplier;
+    private long quietPeriod;
+    private Map<Path, PendingJar> pendingJars;
+    private ExecutorService executorService;
+
+    
+    /**
+     * Constructor for JarWatcher
+     *
+     * @param directories the drop directories to watch
+     * @param destination the destination directory or null for the system temp
+     * @param jarResourcePath the subpath in the jar to extract or null
+     * @param jarExtractorSupplier the supplier of configured jar extractors
+     * @param quietPeriod the time in milliseconds a jar must not change before it is extracted
+     */
+    public JarWatcher(List<File> directories, String destination, String jarResourcePath, Supplier<JarExtractor> jarExtractorSupplier, long quietPeriod) {
+        this.directories = directories;
+        this.destination = destination;
+        this.jarResourcePath = jarResourcePath;
+        this.jarExtractorSupplier = jarExtractorSupplier;
+        this.quietPeriod = quietPeriod;
+        this.pendingJars = new HashMap<>();
+        this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jer-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    
+    /**
+     * Watch the drop directories until the thread is interrupted
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    public void watch() throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            for (File directory : directories) {
+                directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                LOG.info("Watch [" + directory + "] for jars.");
+                
+                // the already deployed jars
+                File[] jarFiles = directory.listFiles((dir, name) -> name.endsWith(JAR_SUFFIX));
+                if (jarFiles != null) {
+                    for (File jarFile : jarFiles) {
+                        changed(jarFile.toPath());
+                    }
+                }
+            }
+
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey watchKey = watchService.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (watchKey != null) {
+                    Path directory = (Path) watchKey.watchable();
+                    for (WatchEvent<?> event : watchKey.pollEvents()) {
+                        if (event.context() instanceof Path && event.context().toString().endsWith(JAR_SUFFIX)) {
+                            changed(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    watchKey.reset();
+                }
+                
+                extractStableJars();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("Watch service closed.");
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    
+    /**
+     * A jar has changed, it will be extracted when it stops changing
+     *
+     * @param jarFile the jar file
+     */
+    private void changed(Path jarFile) {
+        PendingJar pendingJar = pendingJars.computeIfAbsent(jarFile, PendingJar::new);
+        pendingJar.update();
+    }
+
+    
+    /**
+     * Extract the jars which have not changed during the quiet period
+     */
+    private void extractStableJars() {
+        Iterator<PendingJar> it = pendingJars.values().iterator();
+        while (it.hasNext()) {
+            PendingJar pendingJar = it.next();
+            if (!pendingJar.jarFile.exists()) {
+                it.remove();
+            } else if (pendingJar.isStable(quietPeriod)) {
+                it.remove();
+                executorService.execute(() -> extract(pendingJar.jarFile));
+            }
+        }
+    }
+
+    
+    /**
+     * Extract a jar and remove the extractions of its previous versions
+     *
+     * @param jarFile the jar file
+     */
+    void extract(File jarFile) {
+        try {
+            JarExtractor jarExtractor = jarExtractorSupplier.get();
+            File desitionationFile = jarExtractor.extract(destination, jarFile.getPath(), jarResourcePath, false);
+            LOG.info("Pre-extracted [" + jarFile + "] to [" + desitionationFile + "].");
+            removeSupersededExtractions(jarFile, desitionationFile);
+        } catch (IllegalAccessException | IOException | RuntimeException e) {
+            LOG.warn("Could not pre-extract [" + jarFile + "]: " + e.getMessage(), e);
+        }
+    }
+
+    
+    /**
+     * Remove the extractions of previous versions of the jar, they have the same name but another fingerprint. Only complete 
+     * extractions of the same jar path are removed and only if no running launch uses them.
+     *
+     * @param jarFile the jar file
+     * @param desitionationFile the current extraction
+     */
+    private void removeSupersededExtractions(File jarFile, File desitionationFile) {
+        String jarFileName = jarFile.getName().substring(0, jarFile.getName().length() - JAR_SUFFIX.length());
+        Pattern extractionPattern = Pattern.compile(Pattern.quote(jarFileName) + "-([0-9a-f]{16})(-[^.]*)?");
+        Matcher currentMatcher = extractionPattern.matcher(desitionationFile.getName());
+        File[] extractions = desitionationFile.getParentFile().listFiles(File::isDirectory);
+        if (!currentMatcher.matches() || extractions == null) {
+            return;
+        }
+        
+        String sourcePath = JarExtractor.getSourcePath(jarFile);
+        boolean removed = false;
+        for (File extraction : extractions) {
+            Matcher matcher = extractionPattern.matcher(extraction.getName());
+            if (matcher.matches() && !matcher.group(1).equals(currentMatcher.group(1)) && sourcePath.equals(JarExtractor.readSourcePath(extraction))) {
+                removed |= removeExtraction(extraction);
+            }
+        }
+        
+        if (removed) {
+            evictRepackCache(desitionationFile.getParentFile());
+        }
+    }
+
+    
+    /**
+     * Evict the repacked jars of the removed extractions from the repack cache, they are unlinked when the removed 
+     * extractions are deleted.
+     *
+     * @param destinationPath the destination path of the extractions
+     */
+    private void evictRepackCache(File destinationPath) {
+        if (!ExtractionCleaner.getInstance().awaitCompletion(CLEANUP_TIMEOUT)) {
+            LOG.debug("The removed extractions are not deleted yet, their repacked jars are evicted later.");
+        }
+        
+        int evicted = new NestedJarRepacker(new File(destinationPath, JarExtractor.REPACK_CACHE)).evict();
+        if (evicted > 0) {
+            LOG.info("Evicted " + evicted + " repacked jars from the repack cache.");
+        }
+    }
+
+    
+    /**
+     * Remove an extraction if it is not in use
+     *
+     * @param extraction the extraction
+     * @return true if the extraction is removed
+     */
+    private boolean removeExtraction(File extraction) {
+        try {
+            if (!ExtractionCleaner.getInstance().removeExtraction(extraction)) {
+                LOG.info("Keep superseded extraction [" + extraction + "], it is in use.");
+                return false;
+            }
+            
+            LOG.info("Removed superseded extraction [" + extraction + "].");
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Could not remove superseded extraction [" + extraction + "]: " + e.getMessage());
+            return false;
+        }
+    }
+
+    
+    /**
+     * A changed jar which waits until it is stable
+     */
+    static class PendingJar {
+        private final File jarFile;
+        private long size;
+        private long lastModified;
+        private long lastChange;
+
+        
+        /**
+         * Constructor for PendingJar
+         *
+         * @param path the path of the jar
+         */
+        PendingJar(Path path) {
+            this.jarFile = path.toFile();
+            this.size = -1;
+            this.lastModified = -1;
+            this.lastChange = System.nanoTime();
+        }
+
+        
+        /**
+         * Update the state of the jar
+         */
+        void update() {
+            long currentSize = jarFile.length();
+            long currentLastModified = jarFile.lastModified();
+            if (currentSize != size || currentLastModified != lastModified) {
+                size = currentSize;
+                lastModified = currentLastModified;
+                lastChange = System.nanoTime();
+            }
+        }
+
+        
+        /**
+         * Check if the jar has not changed during the quiet period
+         *
+         * @param quietPeriod the quiet period in milliseconds
+         * @return true if the jar is stable
+         */
+        boolean isStable(long quietPeriod) {
+            update();
+            return System.nanoTime() - lastChange >= TimeUnit.MILLISECONDS.toNanos(quietPeriod);
+        }
+    }
+}
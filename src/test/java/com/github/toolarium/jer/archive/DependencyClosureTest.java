@@ -0,0 +1,191 @@
+/*
+ * DependencyClosureTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link DependencyClosure}.
+ *
+ * @author patrick
+ */
+public class DependencyClosureTest {
+    private static final String LIB_A = "BOOT-INF/lib/a.jar";
+    private static final String LIB_B = "BOOT-INF/lib/b.jar";
+    private static final String OTHER_C = "BOOT-INF/other/c.jar";
+    private static final String LIB_D = "BOOT-INF/lib/d.jar";
+    private static final String LIB_E = "BOOT-INF/lib/e.jar";
+    private static final String LIB_F = "BOOT-INF/lib/f.jar";
+    private static final String LIB_UNUSED = "BOOT-INF/lib/unused.jar";
+    private static final String ROOT_X = "x.jar";
+    private static final String CLASSPATH_INDEX = "BOOT-INF/classpath.idx";
+
+
+    /**
+     * Test the relative resolution of the manifest class path.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testClassPath() throws IOException {
+        try (JarFile jar = new JarFile(createJar(), false)) {
+            DependencyClosure closure = new DependencyClosure(jar, "/" + LIB_A, null, null);
+            assertTrue(closure.contains(LIB_A));
+            assertTrue(closure.contains(LIB_B));
+            assertTrue(closure.contains(OTHER_C));
+            assertFalse(closure.contains(LIB_UNUSED));
+            assertFalse(closure.contains(LIB_E));
+        }
+    }
+
+
+    /**
+     * Test that the jars of an index list are followed.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testIndexList() throws IOException {
+        try (JarFile jar = new JarFile(createJar(), false)) {
+            DependencyClosure closure = new DependencyClosure(jar, LIB_B, null, null);
+            assertEquals(2, closure.getEntries().size());
+            assertTrue(closure.contains(LIB_B));
+            assertTrue(closure.contains(LIB_D));
+        }
+    }
+
+
+    /**
+     * Test that references outside of the jar are ignored, even if an entry with the same name exists.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testOutsideReferences() throws IOException {
+        try (JarFile jar = new JarFile(createJar(), false)) {
+            DependencyClosure closure = new DependencyClosure(jar, LIB_A, null, null);
+            assertFalse(closure.contains(ROOT_X));
+            assertEquals(List.of(LIB_A, LIB_B, OTHER_C, LIB_D), List.copyOf(closure.getEntries()));
+        }
+    }
+
+
+    /**
+     * Test the classpath index and the explicit include paths.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testClasspathIndexAndIncludePaths() throws IOException {
+        try (JarFile jar = new JarFile(createJar(), false)) {
+            DependencyClosure closure = new DependencyClosure(jar, OTHER_C, CLASSPATH_INDEX, List.of(" BOOT-INF/classes/ ", ""));
+            assertTrue(closure.contains(OTHER_C));
+            assertTrue(closure.contains(LIB_E));
+            assertTrue(closure.contains(CLASSPATH_INDEX));
+            assertTrue(closure.contains("BOOT-INF/classes/a/A.class"));
+            assertFalse(closure.contains(LIB_A));
+            assertFalse(closure.contains("BOOT-INF/missing.jar"));
+        }
+    }
+
+
+    /**
+     * Test that a class path directory includes all entries below it.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testClassPathDirectory() throws IOException {
+        try (JarFile jar = new JarFile(createJar(), false)) {
+            DependencyClosure closure = new DependencyClosure(jar, LIB_F, null, null);
+            assertEquals(List.of(LIB_F, "BOOT-INF/classes/"), List.copyOf(closure.getEntries()));
+            assertTrue(closure.contains(LIB_F));
+            assertTrue(closure.contains("BOOT-INF/classes/a/A.class"));
+            assertFalse(closure.contains("BOOT-INF/classes-other/a/A.class"));
+            assertFalse(closure.contains(LIB_A));
+        }
+    }
+
+
+    /**
+     * Create the jar with the nested jars
+     *
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar() throws IOException {
+        File jarfile = File.createTempFile("jer-closure", ".jar");
+        jarfile.deleteOnExit();
+
+        String indexList = "JarIndex-Version: 1.0\n\nb.jar\nb\n\nd.jar\nd\n";
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarfile))) {
+            addEntry(jos, LIB_A, createNestedJar("b.jar ../other/c.jar ../../../x.jar /x.jar file:/x.jar", null));
+            addEntry(jos, LIB_B, createNestedJar(null, indexList));
+            addEntry(jos, OTHER_C, createNestedJar(null, null));
+            addEntry(jos, LIB_D, createNestedJar(null, null));
+            addEntry(jos, LIB_E, createNestedJar(null, null));
+            addEntry(jos, LIB_F, createNestedJar("../classes/", null));
+            addEntry(jos, LIB_UNUSED, createNestedJar(null, null));
+            addEntry(jos, ROOT_X, createNestedJar(null, null));
+            addEntry(jos, CLASSPATH_INDEX, ("- \"" + LIB_E + "\"\n- \"BOOT-INF/missing.jar\"\n").getBytes(StandardCharsets.UTF_8));
+            addEntry(jos, "BOOT-INF/classes/a/A.class", new byte[1]);
+            addEntry(jos, "BOOT-INF/classes-other/a/A.class", new byte[1]);
+        }
+        return jarfile;
+    }
+
+
+    /**
+     * Create a nested jar
+     *
+     * @param classPath the manifest class path or null
+     * @param indexList the index list or null
+     * @return the content of the nested jar
+     * @throws IOException In case of an I/O issue
+     */
+    private byte[] createNestedJar(String classPath, String indexList) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (JarOutputStream jos = new JarOutputStream(bos, manifest)) {
+            if (indexList != null) {
+                addEntry(jos, "META-INF/INDEX.LIST", indexList.getBytes(StandardCharsets.UTF_8));
+            }
+            addEntry(jos, "a/A.class", new byte[1]);
+        }
+        return bos.toByteArray();
+    }
+
+
+    /**
+     * Add an entry
+     *
+     * @param jos the jar output stream
+     * @param name the entry name
+     * @param data the data
+     * @throws IOException In case of an I/O issue
+     */
+    private void addEntry(JarOutputStream jos, String name, byte[] data) throws IOException {
+        jos.putNextEntry(new JarEntry(name));
+        jos.write(data);
+        jos.closeEntry();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * ExtractionCleanerTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link ExtractionCleaner}.
+ *
+ * @author patrick
+ */
+public class ExtractionCleanerTest {
+    private static final long TIMEOUT = 30000;
+    private static final String TOMBSTONE_PATH = ".jer-tombstone";
+
+
+    /**
+     * Test that an extraction is removed together with its marker and usage files.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testRemoveExtraction() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-cleaner").toFile();
+        File extraction = createExtraction(destinationPath);
+
+        assertTrue(ExtractionCleaner.getInstance().removeExtraction(extraction));
+        assertFalse(extraction.exists());
+        assertFalse(new File(extraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+        assertFalse(new File(extraction.getPath() + JarExtractor.VERIFIED_SUFFIX).exists());
+        assertFalse(ExtractionUsage.getUsageFile(extraction).exists());
+
+        assertTrue(ExtractionCleaner.getInstance().awaitCompletion(TIMEOUT));
+        assertEquals(0, new File(destinationPath, TOMBSTONE_PATH).list().length);
+    }
+
+
+    /**
+     * Test that an extraction in use is not removed.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testExtractionInUse() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-cleaner").toFile();
+        File extraction = createExtraction(destinationPath);
+
+        try (ExtractionUsage extractionUsage = ExtractionUsage.use(extraction)) {
+            assertFalse(ExtractionCleaner.getInstance().removeExtraction(extraction));
+        }
+        assertTrue(new File(extraction, "a/b/B.class").exists());
+        assertTrue(new File(extraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+
+        assertTrue(ExtractionCleaner.getInstance().removeExtraction(extraction));
+        assertFalse(extraction.exists());
+    }
+
+
+    /**
+     * Test that left over tombstones are swept.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testSweep() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-cleaner").toFile();
+        File tombstonePath = new File(destinationPath, TOMBSTONE_PATH);
+        createExtraction(tombstonePath);
+
+        ExtractionCleaner.getInstance().sweep(destinationPath);
+        assertTrue(ExtractionCleaner.getInstance().awaitCompletion(TIMEOUT));
+        assertEquals(0, tombstonePath.list((dir, name) -> new File(dir, name).isDirectory()).length);
+    }
+
+
+    /**
+     * Create a complete extraction with markers
+     *
+     * @param path the path
+     * @return the extraction
+     * @throws IOException In case of an I/O issue
+     */
+    private File createExtraction(File path) throws IOException {
+        File extraction = new File(path, "app-0123456789abcdef");
+        new File(extraction, "a/b").mkdirs();
+        new File(extraction, "c").mkdirs();
+        Files.writeString(new File(extraction, "a/A.class").toPath(), "A", StandardCharsets.UTF_8);
+        Files.writeString(new File(extraction, "a/b/B.class").toPath(), "B", StandardCharsets.UTF_8);
+        Files.writeString(new File(extraction, "c/C.txt").toPath(), "C", StandardCharsets.UTF_8);
+        Files.writeString(new File(extraction.getPath() + JarExtractor.COMPLETE_SUFFIX).toPath(), "app.jar", StandardCharsets.UTF_8);
+        Files.createFile(new File(extraction.getPath() + JarExtractor.VERIFIED_SUFFIX).toPath());
+        return extraction;
+    }
+}
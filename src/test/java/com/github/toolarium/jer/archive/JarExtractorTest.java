@@ -0,0 +1,179 @@
+/*
+ * JarExtractorTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the durability modes of the {@link JarExtractor}.
+ *
+ * @author patrick
+ */
+public class JarExtractorTest {
+    private static final List<String> ENTRIES = Arrays.asList("a/A.class", "a/b/B.class", "c/C.txt", "D.txt");
+
+
+    /**
+     * Test that the complete file is written after all files in every durability mode.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws IllegalAccessException In case the jar can not be accessed
+     */
+    @Test void testCompleteFileWrittenLast() throws IOException, IllegalAccessException {
+        for (DurabilityMode durabilityMode : DurabilityMode.values()) {
+            File path = Files.createTempDirectory("jer-extract").toFile();
+            File jarFile = createJar(new File(path, "app.jar"), ENTRIES);
+            File destinationPath = new File(path, "destination");
+
+            File extraction = createJarExtractor(durabilityMode, null).extract(destinationPath.getPath(), jarFile.getPath(), null, false);
+            assertComplete(extraction, jarFile);
+        }
+    }
+
+
+    /**
+     * Test that the complete file is written after all files if the entries are extracted in parallel.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws IllegalAccessException In case the jar can not be accessed
+     */
+    @Test void testCompleteFileWrittenLastInParallel() throws IOException, IllegalAccessException {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            for (DurabilityMode durabilityMode : DurabilityMode.values()) {
+                File path = Files.createTempDirectory("jer-extract").toFile();
+                File jarFile = createJar(new File(path, "app.jar"), ENTRIES);
+                File destinationPath = new File(path, "destination");
+
+                File extraction = createJarExtractor(durabilityMode, forkJoinPool).extract(destinationPath.getPath(), jarFile.getPath(), null, false);
+                assertComplete(extraction, jarFile);
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+
+    /**
+     * Test that a failed extraction leaves no complete file in every durability mode.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testFailedExtraction() throws IOException {
+        for (DurabilityMode durabilityMode : DurabilityMode.values()) {
+            File path = Files.createTempDirectory("jer-extract").toFile();
+
+            // the file a can not be written, the directory a was already created for a/A.class
+            File jarFile = createJar(new File(path, "app.jar"), Arrays.asList("a/A.class", "a"));
+            File destinationPath = new File(path, "destination");
+            JarExtractor jarExtractor = createJarExtractor(durabilityMode, null);
+            assertThrows(IOException.class, () -> jarExtractor.extract(destinationPath.getPath(), jarFile.getPath(), null, false));
+
+            String[] completeFiles = destinationPath.list((dir, name) -> name.endsWith(JarExtractor.COMPLETE_SUFFIX));
+            assertEquals(0, completeFiles.length);
+        }
+    }
+
+
+    /**
+     * Test that a failed re-extraction of an existing extraction removes its complete file.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws IllegalAccessException In case the jar can not be accessed
+     */
+    @Test void testFailedOverwrite() throws IOException, IllegalAccessException {
+        for (DurabilityMode durabilityMode : DurabilityMode.values()) {
+            File path = Files.createTempDirectory("jer-extract").toFile();
+            File jarFile = createJar(new File(path, "app.jar"), ENTRIES);
+            File destinationPath = new File(path, "destination");
+            File extraction = createJarExtractor(durabilityMode, null).extract(destinationPath.getPath(), jarFile.getPath(), null, false);
+            assertComplete(extraction, jarFile);
+
+            // a non empty directory in place of a file can not be replaced
+            File file = new File(extraction, "c/C.txt");
+            assertTrue(file.delete());
+            assertTrue(new File(file, "x").mkdirs());
+            JarExtractor jarExtractor = createJarExtractor(durabilityMode, null);
+            assertThrows(IOException.class, () -> jarExtractor.extract(destinationPath.getPath(), jarFile.getPath(), null, true));
+            assertFalse(new File(extraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+            assertNull(JarExtractor.readSourcePath(extraction));
+        }
+    }
+
+
+    /**
+     * Assert that an extraction is complete and that the complete file was written after all files
+     *
+     * @param extraction the extraction
+     * @param jarFile the extracted jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private void assertComplete(File extraction, File jarFile) throws IOException {
+        File completeFile = new File(extraction.getPath() + JarExtractor.COMPLETE_SUFFIX);
+        assertTrue(completeFile.exists());
+        assertEquals(JarExtractor.getSourcePath(jarFile), JarExtractor.readSourcePath(extraction));
+
+        long completeTime = Files.getLastModifiedTime(completeFile.toPath()).toMillis();
+        for (String name : ENTRIES) {
+            File file = new File(extraction, name);
+            assertEquals("content of " + name, Files.readString(file.toPath(), StandardCharsets.UTF_8));
+            assertTrue(Files.getLastModifiedTime(file.toPath()).toMillis() <= completeTime);
+        }
+    }
+
+
+    /**
+     * Create a jar extractor
+     *
+     * @param durabilityMode the durability mode
+     * @param forkJoinPool the fork join pool or null
+     * @return the jar extractor
+     */
+    private JarExtractor createJarExtractor(DurabilityMode durabilityMode, ForkJoinPool forkJoinPool) {
+        JarExtractor jarExtractor = new JarExtractor();
+        jarExtractor.setVerificationPolicy(VerificationPolicy.OFF);
+        jarExtractor.setDurabilityMode(durabilityMode);
+        jarExtractor.setForkJoinPool(forkJoinPool);
+        return jarExtractor;
+    }
+
+
+    /**
+     * Create a jar
+     *
+     * @param jarFile the jar file
+     * @param entries the names of the entries
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(File jarFile, List<String> entries) throws IOException {
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            for (String entryName : entries) {
+                jos.putNextEntry(new JarEntry(entryName));
+                jos.write(("content of " + entryName).getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+        }
+        return jarFile;
+    }
+}
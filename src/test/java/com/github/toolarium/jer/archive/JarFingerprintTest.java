@@ -0,0 +1,91 @@
+/*
+ * JarFingerprintTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link JarFingerprint}.
+ * 
+ * @author patrick
+ */
+public class JarFingerprintTest {
+
+    /**
+     * Test that the fingerprint survives a copy with a different file time.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testCopy() throws IOException {
+        File jarfile = createJar("content");
+        File copy = File.createTempFile("jer-fingerprint-copy", ".jar");
+        copy.deleteOnExit();
+        Files.copy(jarfile.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(copy.toPath(), FileTime.fromMillis(0));
+        
+        assertEquals(JarFingerprint.getInstance().fingerprint(jarfile), JarFingerprint.getInstance().fingerprint(copy));
+    }
+
+    
+    /**
+     * Test that the fingerprint changes with the content.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testChangedContent() throws IOException {
+        assertNotEquals(JarFingerprint.getInstance().fingerprint(createJar("content")), JarFingerprint.getInstance().fingerprint(createJar("changed content")));
+    }
+
+    
+    /**
+     * Test that the hash keeps the values apart.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testHash() throws IOException {
+        JarFingerprint fingerprint = JarFingerprint.getInstance();
+        assertEquals(16, fingerprint.hash(Arrays.asList("a", "b")).length());
+        assertEquals(fingerprint.hash(Arrays.asList("a", "b")), fingerprint.hash(Arrays.asList("a", "b")));
+        assertNotEquals(fingerprint.hash(Arrays.asList("a", "b")), fingerprint.hash(Arrays.asList("ab", "")));
+        assertNotEquals(fingerprint.hash(Arrays.asList("a", null)), fingerprint.hash(Arrays.asList("a", "")));
+    }
+
+    
+    /**
+     * Create a jar
+     *
+     * @param content the content
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(String content) throws IOException {
+        File jarfile = File.createTempFile("jer-fingerprint", ".jar");
+        jarfile.deleteOnExit();
+        
+        try (JarOutputStream os = new JarOutputStream(new FileOutputStream(jarfile))) {
+            os.putNextEntry(new JarEntry("a/"));
+            os.closeEntry();
+            os.putNextEntry(new JarEntry("a/b.txt"));
+            os.write(content.getBytes(StandardCharsets.UTF_8));
+            os.closeEntry();
+        }
+        return jarfile;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * JarSignatureVerifierTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.CertPath;
+import java.security.cert.CertificateFactory;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import jdk.security.jarsigner.JarSigner;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link JarSignatureVerifier} and the verification of the {@link JarExtractor}.
+ *
+ * @author patrick
+ */
+public class JarSignatureVerifierTest {
+    private static final String ALIAS = "jer";
+    private static final String PASSWORD = "changeit";
+    private static final String ENTRY = "a/A.txt";
+
+
+    /**
+     * Test a signed and an unsigned jar.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case of interruption
+     * @throws GeneralSecurityException In case the jar could not be signed
+     */
+    @Test void testSignedJar() throws IOException, InterruptedException, GeneralSecurityException {
+        File path = Files.createTempDirectory("jer-verify").toFile();
+        File jarFile = createJar(path, "unsigned.jar");
+        assertFalse(new JarSignatureVerifier().verify(jarFile));
+        assertTrue(new JarSignatureVerifier(2).verify(signJar(path, jarFile)));
+    }
+
+
+    /**
+     * Test that a signed jar with a changed entry is invalid.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case of interruption
+     * @throws GeneralSecurityException In case the jar could not be signed
+     */
+    @Test void testTamperedJar() throws IOException, InterruptedException, GeneralSecurityException {
+        File path = Files.createTempDirectory("jer-verify").toFile();
+        File signedJarFile = signJar(path, createJar(path, "unsigned.jar"));
+        File jarFile = copyJar(signedJarFile, new File(path, "tampered.jar"), ENTRY, "changed content");
+        assertThrows(IOException.class, () -> new JarSignatureVerifier(2).verify(jarFile));
+    }
+
+
+    /**
+     * Test that a signed jar with an added unsigned entry is invalid and that it is not recorded as verified.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case of interruption
+     * @throws GeneralSecurityException In case the jar could not be signed
+     * @throws IllegalAccessException In case the jar can not be accessed
+     */
+    @Test void testPartiallySignedJar() throws IOException, InterruptedException, GeneralSecurityException, IllegalAccessException {
+        File path = Files.createTempDirectory("jer-verify").toFile();
+        File signedJarFile = signJar(path, createJar(path, "unsigned.jar"));
+        File jarFile = copyJar(signedJarFile, new File(path, "partially-signed.jar"), "b/B.txt", "added content");
+        IOException e = assertThrows(IOException.class, () -> new JarSignatureVerifier(2).verify(jarFile));
+        assertTrue(e.getMessage().contains("1 unsigned entries"));
+
+        File destinationPath = new File(path, "destination");
+        JarExtractor jarExtractor = new JarExtractor();
+        jarExtractor.setVerificationPolicy(VerificationPolicy.VERIFY_ONCE);
+        assertThrows(IOException.class, () -> jarExtractor.extract(destinationPath.getPath(), jarFile.getPath(), null, false));
+
+        String[] verifiedFiles = destinationPath.list((dir, name) -> name.endsWith(JarExtractor.VERIFIED_SUFFIX));
+        if (verifiedFiles != null) {
+            assertEquals(0, verifiedFiles.length);
+        }
+    }
+
+
+    /**
+     * Create an unsigned jar
+     *
+     * @param path the path
+     * @param name the name of the jar
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(File path, String name) throws IOException {
+        File jarFile = new File(path, name);
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            for (String entryName : Arrays.asList(ENTRY, "a/B.txt", "META-INF/services/a.Service", "c/C.txt")) {
+                jos.putNextEntry(new JarEntry(entryName));
+                jos.write(("content of " + entryName).getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+        }
+        return jarFile;
+    }
+
+
+    /**
+     * Sign a jar with a new self-signed key
+     *
+     * @param path the path
+     * @param jarFile the jar file to sign
+     * @return the signed jar file
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case of interruption
+     * @throws GeneralSecurityException In case the jar could not be signed
+     */
+    private File signJar(File path, File jarFile) throws IOException, InterruptedException, GeneralSecurityException {
+        File keyStoreFile = new File(path, "keystore.p12");
+        Process process = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/keytool").getPath(), "-genkeypair",
+                                             "-keystore", keyStoreFile.getPath(), "-storetype", "PKCS12", "-storepass", PASSWORD,
+                                             "-alias", ALIAS, "-keyalg", "EC", "-dname", "CN=jer", "-validity", "1")
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream is = Files.newInputStream(keyStoreFile.toPath())) {
+            keyStore.load(is, PASSWORD.toCharArray());
+        }
+        PrivateKey privateKey = (PrivateKey) keyStore.getKey(ALIAS, PASSWORD.toCharArray());
+        CertPath certPath = CertificateFactory.getInstance("X.509").generateCertPath(Arrays.asList(keyStore.getCertificateChain(ALIAS)));
+
+        File signedJarFile = new File(path, "signed.jar");
+        try (ZipFile zipFile = new ZipFile(jarFile); FileOutputStream fos = new FileOutputStream(signedJarFile)) {
+            new JarSigner.Builder(privateKey, certPath).build().sign(zipFile, fos);
+        }
+        return signedJarFile;
+    }
+
+
+    /**
+     * Copy a jar and replace or add an entry
+     *
+     * @param source the source jar
+     * @param target the target jar
+     * @param name the name of the entry to replace or add
+     * @param content the content of the entry
+     * @return the target jar
+     * @throws IOException In case of an I/O issue
+     */
+    private File copyJar(File source, File target, String name, String content) throws IOException {
+        try (JarFile jar = new JarFile(source, false); ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(target))) {
+            Enumeration<JarEntry> enumEntries = jar.entries();
+            while (enumEntries.hasMoreElements()) {
+                JarEntry jarEntry = enumEntries.nextElement();
+                if (!jarEntry.getName().equals(name)) {
+                    zos.putNextEntry(new ZipEntry(jarEntry.getName()));
+                    try (InputStream is = jar.getInputStream(jarEntry)) {
+                        is.transferTo(zos);
+                    }
+                    zos.closeEntry();
+                }
+            }
+
+            zos.putNextEntry(new ZipEntry(name));
+            zos.write(content.getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+        return target;
+    }
+}
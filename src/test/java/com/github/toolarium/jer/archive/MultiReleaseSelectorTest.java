@@ -0,0 +1,132 @@
+/*
+ * MultiReleaseSelectorTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link MultiReleaseSelector}.
+ * 
+ * @author patrick
+ */
+public class MultiReleaseSelectorTest {
+    private static final String[] ENTRIES = {"a/A.class", "a/B.class", 
+                                             "META-INF/versions/9/a/A.class", "META-INF/versions/11/a/A.class", "META-INF/versions/17/a/A.class", 
+                                             "META-INF/versions/11/a/C.class"};
+
+    
+    /**
+     * Test that the best version is kept at its versioned path.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testKeep() throws IOException {
+        try (JarFile jar = new JarFile(createJar(true), false)) {
+            assertTrue(MultiReleaseSelector.isMultiRelease(jar));
+            
+            MultiReleaseSelector selector = new MultiReleaseSelector(jar, MultiReleaseMode.KEEP, 11);
+            assertEquals("a/A.class", resolve(selector, jar, "a/A.class"));
+            assertEquals("a/B.class", resolve(selector, jar, "a/B.class"));
+            assertNull(resolve(selector, jar, "META-INF/versions/9/a/A.class"));
+            assertEquals("META-INF/versions/11/a/A.class", resolve(selector, jar, "META-INF/versions/11/a/A.class"));
+            assertNull(resolve(selector, jar, "META-INF/versions/17/a/A.class"));
+            assertEquals("META-INF/versions/11/a/C.class", resolve(selector, jar, "META-INF/versions/11/a/C.class"));
+            assertEquals(2, selector.getSkippedEntries());
+        }
+    }
+
+    
+    /**
+     * Test that the best version replaces the base entry.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testFlatten() throws IOException {
+        try (JarFile jar = new JarFile(createJar(true), false)) {
+            MultiReleaseSelector selector = new MultiReleaseSelector(jar, MultiReleaseMode.FLATTEN, 11);
+            assertNull(resolve(selector, jar, "a/A.class"));
+            assertEquals("a/B.class", resolve(selector, jar, "a/B.class"));
+            assertNull(resolve(selector, jar, "META-INF/versions/9/a/A.class"));
+            assertEquals("a/A.class", resolve(selector, jar, "META-INF/versions/11/a/A.class"));
+            assertNull(resolve(selector, jar, "META-INF/versions/17/a/A.class"));
+            assertEquals("a/C.class", resolve(selector, jar, "META-INF/versions/11/a/C.class"));
+        }
+    }
+
+    
+    /**
+     * Test a target version without matching versions and a jar which is not a multi-release jar.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testBaseVersion() throws IOException {
+        try (JarFile jar = new JarFile(createJar(true), false)) {
+            MultiReleaseSelector selector = new MultiReleaseSelector(jar, MultiReleaseMode.FLATTEN, 8);
+            assertEquals("a/A.class", resolve(selector, jar, "a/A.class"));
+            assertNull(resolve(selector, jar, "META-INF/versions/9/a/A.class"));
+            assertNull(resolve(selector, jar, "META-INF/versions/11/a/C.class"));
+        }
+        
+        try (JarFile jar = new JarFile(createJar(false), false)) {
+            assertFalse(MultiReleaseSelector.isMultiRelease(jar));
+        }
+    }
+
+    
+    /**
+     * Resolve an entry
+     *
+     * @param selector the selector
+     * @param jar the jar file
+     * @param name the entry name
+     * @return the resolved name
+     */
+    private String resolve(MultiReleaseSelector selector, JarFile jar, String name) {
+        return selector.resolve(jar.getJarEntry(name));
+    }
+
+    
+    /**
+     * Create a jar
+     *
+     * @param multiRelease true to mark it as multi-release jar
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(boolean multiRelease) throws IOException {
+        File jarfile = File.createTempFile("jer-multi-release", ".jar");
+        jarfile.deleteOnExit();
+        
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (multiRelease) {
+            manifest.getMainAttributes().put(Attributes.Name.MULTI_RELEASE, "true");
+        }
+        
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarfile), manifest)) {
+            for (String name : ENTRIES) {
+                jos.putNextEntry(new JarEntry(name));
+                jos.write(name.getBytes());
+                jos.closeEntry();
+            }
+        }
+        return jarfile;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * NativeLibraryFilterTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link NativeLibraryFilter}.
+ * 
+ * @author patrick
+ */
+public class NativeLibraryFilterTest {
+
+    /**
+     * Test the built-in rules for linux x86_64.
+     */
+    @Test void testDefaultRules() {
+        NativeLibraryFilter filter = new NativeLibraryFilter("Linux", "amd64");
+        assertTrue(filter.accept("META-INF/native/libnetty_tcnative_linux_x86_64.so"));
+        assertFalse(filter.accept("META-INF/native/libnetty_tcnative_linux_aarch_64.so"));
+        assertFalse(filter.accept("META-INF/native/netty_tcnative_windows_x86_64.dll"));
+        assertFalse(filter.accept("META-INF/native/libnetty_resolver_dns_native_macos_aarch_64.jnilib"));
+        assertTrue(filter.accept("META-INF/native/libnetty_transport_native_epoll_x86_64.so"));
+        assertFalse(filter.accept("META-INF/native/libnetty_transport_native_epoll_aarch_64.so"));
+        assertTrue(filter.accept("org/fusesource/jansi/internal/native/Linux/x86_64/libjansi.so"));
+        assertFalse(filter.accept("org/fusesource/jansi/internal/native/Linux/arm64/libjansi.so"));
+        assertFalse(filter.accept("org/fusesource/jansi/internal/native/Windows/x86_64/jansi.dll"));
+        assertTrue(filter.accept("org/sqlite/native/Linux-Musl/x86_64/libsqlitejdbc.so"));
+        assertFalse(filter.accept("org/sqlite/native/Mac/aarch64/libsqlitejdbc.dylib"));
+        assertTrue(filter.accept("natives/linux-x86_64/liblwjgl.so"));
+        assertFalse(filter.accept("natives/windows-x86_64/lwjgl.dll"));
+        assertTrue(filter.accept("com/sun/jna/linux-x86-64/libjnidispatch.so"));
+        assertFalse(filter.accept("com/sun/jna/win32-x86-64/jnidispatch.dll"));
+        assertEquals(9, filter.getSkippedEntries());
+    }
+
+    
+    /**
+     * Test that unknown entries and platforms are kept.
+     */
+    @Test void testUnknown() {
+        NativeLibraryFilter filter = new NativeLibraryFilter("linux", "aarch64");
+        assertTrue(filter.accept("com/example/Main.class"));
+        assertTrue(filter.accept("com/sun/jna/Pointer.class"));
+        assertTrue(filter.accept("META-INF/native/libfoo.so"));
+        assertTrue(filter.accept("org/fusesource/jansi/internal/native/Linux/unknown/libjansi.so"));
+        assertTrue(filter.accept("org/fusesource/jansi/internal/native/Linux/arm64/libjansi.so"));
+        assertEquals(0, filter.getSkippedEntries());
+    }
+
+    
+    /**
+     * Test a user-defined rule.
+     */
+    @Test void testCustomRule() {
+        NativeLibraryFilter filter = new NativeLibraryFilter("linux", "x86_64");
+        String key = filter.getKey();
+        filter.addRule("lib/(?<os>[^/]+)/(?<arch>[^/]+)/.+");
+        assertTrue(filter.accept("lib/linux/x64/libfoo.so"));
+        assertFalse(filter.accept("lib/darwin/x64/libfoo.dylib"));
+        assertNotEquals(key, filter.getKey());
+    }
+
+    
+    /**
+     * Test the normalization of the platform names.
+     */
+    @Test void testNormalize() {
+        assertEquals("osx", NativeLibraryFilter.normalizeOs("Mac OS X"));
+        assertEquals("windows", NativeLibraryFilter.normalizeOs("Windows 11"));
+        assertEquals("aarch64", NativeLibraryFilter.normalizeArch("arm64"));
+        assertEquals("x86_64", NativeLibraryFilter.normalizeArch("x86-64"));
+        assertNull(NativeLibraryFilter.normalizeOs("plan9"));
+    }
+}
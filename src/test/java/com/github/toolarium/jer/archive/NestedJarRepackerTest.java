@@ -0,0 +1,167 @@
+/*
+ * NestedJarRepackerTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link NestedJarRepacker}.
+ *
+ * @author patrick
+ */
+public class NestedJarRepackerTest {
+    private static final String ENTRY = "a/A.class";
+    private static final String REPACK_CACHE = ".jer-repack";
+
+
+    /**
+     * Test that a deflated jar is repacked as a stored jar with the same content, a stored jar is skipped.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testRepack() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-repack").toFile();
+        File extraction = new File(destinationPath, "app-1");
+        File jarFile = createJar(new File(extraction, "lib/a.jar"), ZipEntry.DEFLATED);
+        File storedJarFile = createJar(new File(extraction, "lib/b.jar"), ZipEntry.STORED);
+        File otherFile = new File(extraction, "lib/c.txt");
+        Files.writeString(otherFile.toPath(), "c", StandardCharsets.UTF_8);
+        String fingerprint = JarFingerprint.getInstance().fingerprint(jarFile);
+
+        NestedJarRepacker nestedJarRepacker = new NestedJarRepacker(new File(destinationPath, REPACK_CACHE), 2);
+        RepackStatistic repackStatistic = nestedJarRepacker.repack(Arrays.asList(jarFile, storedJarFile, otherFile));
+        assertEquals(1, repackStatistic.getRepacked());
+        assertEquals(1, repackStatistic.getSkipped());
+        assertEquals(0, repackStatistic.getReused());
+
+        try (JarFile jar = new JarFile(jarFile)) {
+            assertTrue(jar.stream().allMatch(entry -> entry.getMethod() == ZipEntry.STORED));
+            assertEquals(JarFile.MANIFEST_NAME, jar.stream().findFirst().get().getName());
+            assertEquals(ENTRY + " of a.jar", new String(jar.getInputStream(jar.getEntry(ENTRY)).readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        File cachedFile = new File(destinationPath, REPACK_CACHE + "/" + fingerprint + ".jar");
+        assertTrue(cachedFile.exists());
+        assertEquals(Arrays.asList(cachedFile.getName()), Arrays.asList(cachedFile.getParentFile().list()));
+        assertTrue(nestedJarRepacker.getWrittenFiles().contains(jarFile));
+        assertTrue(nestedJarRepacker.getWrittenFiles().contains(cachedFile));
+        assertFalse(nestedJarRepacker.getWrittenFiles().contains(storedJarFile));
+    }
+
+
+    /**
+     * Test that the repacked jar of another extraction is reused from the cache.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testReuse() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-repack").toFile();
+        File cachePath = new File(destinationPath, REPACK_CACHE);
+        File firstJarFile = createJar(new File(destinationPath, "app-1/lib/a.jar"), ZipEntry.DEFLATED);
+        File secondJarFile = createJar(new File(destinationPath, "app-2/lib/a.jar"), ZipEntry.DEFLATED);
+
+        assertEquals(1, new NestedJarRepacker(cachePath).repack(List.of(firstJarFile)).getRepacked());
+        RepackStatistic repackStatistic = new NestedJarRepacker(cachePath).repack(List.of(secondJarFile));
+        assertEquals(0, repackStatistic.getRepacked());
+        assertEquals(1, repackStatistic.getReused());
+        assertTrue(Arrays.equals(Files.readAllBytes(firstJarFile.toPath()), Files.readAllBytes(secondJarFile.toPath())));
+    }
+
+
+    /**
+     * Test the link or copy of a file, an existing target is replaced.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testLinkOrCopy() throws IOException {
+        File path = Files.createTempDirectory("jer-repack").toFile();
+        File source = new File(path, "source.jar");
+        File target = new File(path, "target.jar");
+        Files.writeString(source.toPath(), "source", StandardCharsets.UTF_8);
+        Files.writeString(target.toPath(), "existing target", StandardCharsets.UTF_8);
+
+        new NestedJarRepacker(path).linkOrCopy(source.toPath(), target.toPath());
+        assertEquals("source", Files.readString(target.toPath(), StandardCharsets.UTF_8));
+        assertTrue(source.exists());
+    }
+
+
+    /**
+     * Test that only the cached jars which are not linked by an extraction are evicted.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testEvict() throws IOException {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("unix")) {
+            // without a link count the cache is kept
+            return;
+        }
+
+        File destinationPath = Files.createTempDirectory("jer-repack").toFile();
+        File cachePath = new File(destinationPath, REPACK_CACHE);
+        File firstJarFile = createJar(new File(destinationPath, "app-1/lib/a.jar"), ZipEntry.DEFLATED);
+        File secondJarFile = createJar(new File(destinationPath, "app-2/lib/b.jar"), ZipEntry.DEFLATED);
+        Files.writeString(new File(destinationPath, "app-2/lib/b.txt").toPath(), "b", StandardCharsets.UTF_8);
+        NestedJarRepacker nestedJarRepacker = new NestedJarRepacker(cachePath);
+        assertEquals(2, nestedJarRepacker.repack(List.of(firstJarFile, secondJarFile)).getRepacked());
+        assertEquals(0, nestedJarRepacker.evict());
+
+        Files.delete(secondJarFile.toPath());
+        assertEquals(1, nestedJarRepacker.evict());
+        assertEquals(1, cachePath.list().length);
+        assertEquals(0, nestedJarRepacker.evict());
+    }
+
+
+    /**
+     * Create a jar with a manifest and some entries, the content depends on the name of the jar
+     *
+     * @param jarFile the jar file
+     * @param method the compression method
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(File jarFile, int method) throws IOException {
+        jarFile.getParentFile().mkdirs();
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            jos.setMethod(method);
+            for (String name : Arrays.asList(ENTRY, JarFile.MANIFEST_NAME, "b/B.class")) {
+                byte[] data = (name + " of " + jarFile.getName()).getBytes(StandardCharsets.UTF_8);
+                JarEntry jarEntry = new JarEntry(name);
+                jarEntry.setTime(0);
+                if (method == ZipEntry.STORED) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    jarEntry.setSize(data.length);
+                    jarEntry.setCompressedSize(data.length);
+                    jarEntry.setCrc(crc.getValue());
+                }
+                jos.putNextEntry(jarEntry);
+                jos.write(data);
+                jos.closeEntry();
+            }
+        }
+        return jarFile;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * BatchExtractionTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.toolarium.jer.archive.JarExtractor;
+import com.github.toolarium.jer.archive.VerificationPolicy;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link BatchExtraction}.
+ *
+ * @author patrick
+ */
+public class BatchExtractionTest {
+
+    /**
+     * Test that a failed jar does not stop the other jars and that the shared pool is not shut down.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testFailedJar() throws IOException {
+        File path = Files.createTempDirectory("jer-batch").toFile();
+        File jarPath = new File(path, "lib");
+        jarPath.mkdirs();
+        File destinationPath = new File(path, "destination");
+        File firstJarFile = createJar(new File(jarPath, "a.jar"), "a");
+        File secondJarFile = createJar(new File(jarPath, "c.jar"), "c");
+
+        // a jar which is not a zip file can not be extracted
+        File invalidJarFile = new File(jarPath, "b.jar");
+        Files.writeString(invalidJarFile.toPath(), "no jar", StandardCharsets.UTF_8);
+        File missingJarFile = new File(path, "missing.jar");
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            BatchExtraction batchExtraction = new BatchExtraction(Arrays.asList(jarPath, missingJarFile), destinationPath.getPath(), null, false, this::createJarExtractor, forkJoinPool);
+            List<BatchResult> results = batchExtraction.extract();
+            assertEquals(4, results.size());
+            assertResult(results.get(0), firstJarFile, true);
+            assertResult(results.get(1), invalidJarFile, false);
+            assertResult(results.get(2), secondJarFile, true);
+            assertResult(results.get(3), missingJarFile, false);
+
+            assertFalse(forkJoinPool.isShutdown());
+            results = batchExtraction.extract();
+            assertTrue(results.get(0).isSuccess());
+            assertTrue(results.get(2).isSuccess());
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+
+    /**
+     * Assert the result of a jar
+     *
+     * @param batchResult the result
+     * @param jarFile the expected jar file
+     * @param success true if the extraction is expected to be successful
+     */
+    private void assertResult(BatchResult batchResult, File jarFile, boolean success) {
+        assertEquals(jarFile, batchResult.getJarFile());
+        assertEquals(success, batchResult.isSuccess());
+        if (success) {
+            assertNull(batchResult.getError());
+            assertTrue(new File(batchResult.getDesitionationFile(), "content.txt").exists());
+            assertTrue(new File(batchResult.getDesitionationFile().getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+        } else {
+            assertNull(batchResult.getDesitionationFile());
+            assertNotNull(batchResult.getError());
+        }
+    }
+
+
+    /**
+     * Create a jar extractor
+     *
+     * @return the jar extractor
+     */
+    private JarExtractor createJarExtractor() {
+        JarExtractor jarExtractor = new JarExtractor();
+        jarExtractor.setVerificationPolicy(VerificationPolicy.OFF);
+        return jarExtractor;
+    }
+
+
+    /**
+     * Write a jar with one entry
+     *
+     * @param jarFile the jar file
+     * @param content the content of the entry
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(File jarFile, String content) throws IOException {
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            jos.putNextEntry(new JarEntry("content.txt"));
+            jos.write(content.getBytes(StandardCharsets.UTF_8));
+            jos.closeEntry();
+        }
+        return jarFile;
+    }
+}
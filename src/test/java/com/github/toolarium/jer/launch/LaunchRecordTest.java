@@ -0,0 +1,187 @@
+/*
+ * LaunchRecordTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.launch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.toolarium.jer.archive.JarExtractor;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link LaunchRecord} and the fast path of the {@link Launcher}.
+ * 
+ * @author patrick
+ */
+public class LaunchRecordTest {
+    private static final List<String> LAUNCH_ARGUMENTS = Arrays.asList("java", "-jar", "app.jar", "-rf", "app.jar", "arg1");
+    private static final List<String> COMMAND = Arrays.asList("java", "-jar", "app.jar", "arg1");
+
+    
+    /**
+     * Test that a written record is read and valid as long as nothing changed.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testReadWrite() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-launch").toFile();
+        File jarFile = createJar(destinationPath);
+        File workingPath = createExtraction(destinationPath);
+        
+        File recordFile = LaunchRecord.getRecordFile(destinationPath, jarFile, LAUNCH_ARGUMENTS);
+        new LaunchRecord(jarFile, workingPath, LAUNCH_ARGUMENTS, COMMAND).write(recordFile);
+        
+        LaunchRecord launchRecord = LaunchRecord.read(recordFile);
+        assertEquals(COMMAND, launchRecord.getCommand());
+        assertEquals(LAUNCH_ARGUMENTS, launchRecord.getLaunchArguments());
+        assertEquals(workingPath.getAbsoluteFile(), launchRecord.getWorkingPath());
+        assertTrue(launchRecord.isValid(LAUNCH_ARGUMENTS, jarFile));
+        assertFalse(launchRecord.isValid(Arrays.asList("java", "-jar", "app.jar", "-rf", "app.jar", "arg2"), jarFile));
+        assertNotEquals(recordFile, LaunchRecord.getRecordFile(destinationPath, jarFile, Arrays.asList("java", "-jar", "app.jar", "-o")));
+    }
+
+    
+    /**
+     * Test that a record is invalid after the jar or the extraction changed.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testInvalid() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-launch").toFile();
+        File jarFile = createJar(destinationPath);
+        File workingPath = createExtraction(destinationPath);
+        File recordFile = LaunchRecord.getRecordFile(destinationPath, jarFile, LAUNCH_ARGUMENTS);
+        new LaunchRecord(jarFile, workingPath, LAUNCH_ARGUMENTS, COMMAND).write(recordFile);
+
+        writeJar(jarFile, "changed content");
+        assertFalse(LaunchRecord.read(recordFile).isValid(LAUNCH_ARGUMENTS, jarFile));
+
+        new LaunchRecord(jarFile, workingPath, LAUNCH_ARGUMENTS, COMMAND).write(recordFile);
+        assertTrue(LaunchRecord.read(recordFile).isValid(LAUNCH_ARGUMENTS, jarFile));
+        Files.delete(new File(workingPath.getPath() + JarExtractor.COMPLETE_SUFFIX).toPath());
+        assertFalse(LaunchRecord.read(recordFile).isValid(LAUNCH_ARGUMENTS, jarFile));
+        
+        assertNull(LaunchRecord.read(new File(destinationPath, "missing.launch")));
+    }
+
+    
+    /**
+     * Test that a record is invalid after the jar was replaced by a jar with the same size and file time.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testReplacedJar() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-launch").toFile();
+        File jarFile = createJar(destinationPath);
+        File workingPath = createExtraction(destinationPath);
+        File recordFile = LaunchRecord.getRecordFile(destinationPath, jarFile, LAUNCH_ARGUMENTS);
+        new LaunchRecord(jarFile, workingPath, LAUNCH_ARGUMENTS, COMMAND).write(recordFile);
+        
+        long size = jarFile.length();
+        FileTime lastModified = Files.getLastModifiedTime(jarFile.toPath());
+        writeJar(jarFile, "CONTENT");
+        Files.setLastModifiedTime(jarFile.toPath(), lastModified);
+        assertEquals(size, jarFile.length());
+        assertFalse(LaunchRecord.read(recordFile).isValid(LAUNCH_ARGUMENTS, jarFile));
+    }
+
+    
+    /**
+     * Test that the same arguments of another jar, e.g. a relative jar started in another directory, don't use the record.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testOtherJar() throws IOException {
+        File destinationPath = Files.createTempDirectory("jer-launch").toFile();
+        File jarFile = createJar(destinationPath);
+        File workingPath = createExtraction(destinationPath);
+        File otherPath = new File(destinationPath, "other");
+        otherPath.mkdirs();
+        File otherJarFile = createJar(otherPath);
+        
+        File recordFile = LaunchRecord.getRecordFile(destinationPath, jarFile, LAUNCH_ARGUMENTS);
+        new LaunchRecord(jarFile, workingPath, LAUNCH_ARGUMENTS, COMMAND).write(recordFile);
+        assertNotEquals(recordFile, LaunchRecord.getRecordFile(destinationPath, otherJarFile, LAUNCH_ARGUMENTS));
+        assertEquals(recordFile, LaunchRecord.getRecordFile(destinationPath, new File(otherPath, "../app.jar"), LAUNCH_ARGUMENTS));
+        
+        LaunchRecord launchRecord = LaunchRecord.read(recordFile);
+        assertTrue(launchRecord.isValid(LAUNCH_ARGUMENTS, new File(otherPath, "../app.jar")));
+        assertFalse(launchRecord.isValid(LAUNCH_ARGUMENTS, otherJarFile));
+        assertFalse(launchRecord.isValid(LAUNCH_ARGUMENTS, null));
+    }
+
+    
+    /**
+     * Test the destination path of the launcher.
+     */
+    @Test void testDestinationPath() {
+        assertEquals(new File(System.getProperty("java.io.tmpdir")), Launcher.getDestinationPath(new String[] {"-rf", "app.jar"}));
+        assertEquals(new File("/opt/jer"), Launcher.getDestinationPath(new String[] {"-rf", "app.jar", "-d", "/opt/jer"}));
+        assertEquals(new File("/opt/jer"), Launcher.getDestinationPath(new String[] {"--destination=/opt/jer", "-rf", "app.jar"}));
+        assertEquals(new File(System.getProperty("java.io.tmpdir")), Launcher.getDestinationPath(new String[] {"-rf", "app.jar", "--", "-d", "/opt/jer"}));
+    }
+
+    
+    /**
+     * Create a jar
+     *
+     * @param path the path
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJar(File path) throws IOException {
+        File jarFile = new File(path, "app.jar");
+        writeJar(jarFile, "content");
+        return jarFile;
+    }
+
+    
+    /**
+     * Write a jar with one entry
+     *
+     * @param jarFile the jar file
+     * @param content the content of the entry
+     * @throws IOException In case of an I/O issue
+     */
+    private void writeJar(File jarFile, String content) throws IOException {
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            JarEntry jarEntry = new JarEntry("content.txt");
+            jarEntry.setTime(0);
+            jos.putNextEntry(jarEntry);
+            jos.write(content.getBytes(StandardCharsets.UTF_8));
+            jos.closeEntry();
+        }
+    }
+
+    
+    /**
+     * Create a complete extraction
+     *
+     * @param path the path
+     * @return the extraction
+     * @throws IOException In case of an I/O issue
+     */
+    private File createExtraction(File path) throws IOException {
+        File workingPath = new File(path, "app-0123456789abcdef");
+        workingPath.mkdirs();
+        Files.createFile(new File(workingPath.getPath() + JarExtractor.COMPLETE_SUFFIX).toPath());
+        return workingPath;
+    }
+}
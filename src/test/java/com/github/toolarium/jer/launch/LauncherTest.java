@@ -0,0 +1,148 @@
+/*
+ * LauncherTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.launch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.toolarium.jer.archive.JarExtractor;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the launcher overhead of the fast path: a warm launch starts the recorded command and ends with its exit code
+ * without loading the {@link com.github.toolarium.jer.Main}, picocli, jansi or the logging.
+ *
+ * @author patrick
+ */
+public class LauncherTest {
+    private static final int EXIT_CODE = 7;
+    private static final long TIMEOUT = 60;
+    private static final List<String> SLOW_PATH_CLASSES = Arrays.asList("com.github.toolarium.jer.Main ", "picocli.", "org.fusesource.jansi.", "org.slf4j.", "ch.qos.logback.");
+
+
+    /**
+     * Test the fast path in a separate jvm.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case of interruption
+     */
+    @Test void testFastPath() throws IOException, InterruptedException {
+        List<String> currentLaunchArguments = LaunchRecord.getCurrentLaunchArguments();
+        if (currentLaunchArguments == null) {
+            // the launch arguments are not available on this platform, there is no fast path
+            return;
+        }
+
+        File destinationPath = Files.createTempDirectory("jer-launcher").toFile();
+        File jarFile = createJerJar(destinationPath);
+        File workingPath = new File(destinationPath, "app-0123456789abcdef");
+        workingPath.mkdirs();
+        Files.createFile(new File(workingPath.getPath() + JarExtractor.COMPLETE_SUFFIX).toPath());
+
+        String java = currentLaunchArguments.get(0);
+        File classLoadLog = new File(destinationPath, "class-load.log");
+        List<String> launchArguments = Arrays.asList(java, "-Xlog:class+load=info:file=" + classLoadLog.getPath(), "-cp", jarFile.getPath(),
+                                                     Launcher.class.getName(), "-d", destinationPath.getPath());
+        List<String> command = Arrays.asList(java, "-cp", getCodeSource(ExitCommand.class).toString(), ExitCommand.class.getName(), "" + EXIT_CODE);
+        new LaunchRecord(jarFile, workingPath, launchArguments, command).write(LaunchRecord.getRecordFile(destinationPath, jarFile, launchArguments));
+
+        Process process = new ProcessBuilder(launchArguments).inheritIO().start();
+        assertTrue(process.waitFor(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(EXIT_CODE, process.exitValue());
+
+        String classLoads = Files.readString(classLoadLog.toPath());
+        assertTrue(classLoads.contains(LaunchRecord.class.getName() + " "));
+        for (String slowPathClass : SLOW_PATH_CLASSES) {
+            assertFalse(classLoads.contains(" " + slowPathClass));
+        }
+    }
+
+
+    /**
+     * Create the jer jar from the classes of the launcher
+     *
+     * @param path the path
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File createJerJar(File path) throws IOException {
+        Path classes = getCodeSource(Launcher.class);
+        if (Files.isRegularFile(classes)) {
+            return classes.toFile();
+        }
+
+        File jarFile = new File(path, "jer.jar");
+        List<Path> classFiles = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(classes)) {
+            stream.filter(Files::isRegularFile).forEach(classFiles::add);
+        }
+
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            for (Path classFile : classFiles) {
+                jos.putNextEntry(new JarEntry(classes.relativize(classFile).toString().replace(File.separatorChar, '/')));
+                jos.write(Files.readAllBytes(classFile));
+                jos.closeEntry();
+            }
+        }
+        return jarFile;
+    }
+
+
+    /**
+     * Get the code source of a class
+     *
+     * @param clazz the class
+     * @return the path of the jar or the classes
+     * @throws IOException In case the code source can not be resolved
+     */
+    private Path getCodeSource(Class<?> clazz) throws IOException {
+        try {
+            return Path.of(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+
+    /**
+     * The recorded command, it ends with the exit code of its argument.
+     *
+     * @author patrick
+     */
+    public static final class ExitCommand {
+        /**
+         * Constructor for ExitCommand
+         */
+        private ExitCommand() {
+            // NOP
+        }
+
+
+        /**
+         * The main
+         *
+         * @param args the exit code
+         */
+        public static void main(String[] args) {
+            System.exit(Integer.parseInt(args[0])); // CHECKSTYLE IGNORE THIS LINE
+        }
+    }
+}
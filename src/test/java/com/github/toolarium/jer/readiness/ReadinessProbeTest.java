@@ -0,0 +1,76 @@
+/*
+ * ReadinessProbeTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the readiness probes.
+ *
+ * @author patrick
+ */
+public class ReadinessProbeTest {
+
+    /**
+     * Test the output pattern probe, it stays ready until it is reset.
+     */
+    @Test void testOutputPattern() {
+        OutputPatternReadinessProbe readinessProbe = new OutputPatternReadinessProbe("Started .* in [0-9.]+ seconds");
+        assertFalse(readinessProbe.isReady());
+        readinessProbe.onOutput("Starting application");
+        assertFalse(readinessProbe.isReady());
+        readinessProbe.onOutput("INFO Started Application in 1.23 seconds (process running for 1.5)");
+        assertTrue(readinessProbe.isReady());
+        readinessProbe.onOutput("Shutting down");
+        assertTrue(readinessProbe.isReady());
+        
+        readinessProbe.reset();
+        assertFalse(readinessProbe.isReady());
+    }
+
+
+    /**
+     * Test the port probe.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testPort() throws IOException {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = serverSocket.getLocalPort();
+            assertTrue(new PortReadinessProbe(port).isReady());
+        }
+        assertFalse(new PortReadinessProbe(port).isReady());
+    }
+
+
+    /**
+     * Test the file probe, a file of a previous run is deleted by the reset.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testFile() throws IOException {
+        File file = new File(Files.createTempDirectory("jer-readiness").toFile(), "ready");
+        FileReadinessProbe readinessProbe = new FileReadinessProbe(file);
+        assertFalse(readinessProbe.isReady());
+        
+        Files.createFile(file.toPath());
+        assertTrue(readinessProbe.isReady());
+        
+        readinessProbe.reset();
+        assertFalse(file.exists());
+        assertFalse(readinessProbe.isReady());
+    }
+}
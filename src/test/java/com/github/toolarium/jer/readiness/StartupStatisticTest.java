@@ -0,0 +1,65 @@
+/*
+ * StartupStatisticTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.readiness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link StartupStatistic}.
+ *
+ * @author patrick
+ */
+public class StartupStatisticTest {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+
+    /**
+     * Test the nearest rank percentiles.
+     */
+    @Test void testPercentile() {
+        StartupStatistic startupStatistic = new StartupStatistic();
+        assertEquals(0, startupStatistic.percentile(StartupMeasurement::getBootNanos, 50));
+
+        // added out of order, the values 1..10
+        for (long value : new long[] {7, 3, 10, 1, 5, 9, 2, 8, 4, 6}) {
+            StartupMeasurement measurement = new StartupMeasurement();
+            measurement.setBootNanos(value);
+            measurement.setLauncherNanos(100);
+            startupStatistic.add(measurement);
+        }
+
+        assertEquals(1, startupStatistic.percentile(StartupMeasurement::getBootNanos, 0));
+        assertEquals(1, startupStatistic.percentile(StartupMeasurement::getBootNanos, 10));
+        assertEquals(2, startupStatistic.percentile(StartupMeasurement::getBootNanos, 11));
+        assertEquals(5, startupStatistic.percentile(StartupMeasurement::getBootNanos, 50));
+        assertEquals(9, startupStatistic.percentile(StartupMeasurement::getBootNanos, 90));
+        assertEquals(10, startupStatistic.percentile(StartupMeasurement::getBootNanos, 99));
+        assertEquals(10, startupStatistic.percentile(StartupMeasurement::getBootNanos, 100));
+        assertEquals(105, startupStatistic.percentile(StartupMeasurement::getTimeToReadyNanos, 50));
+    }
+
+
+    /**
+     * Test a single measurement and the summary.
+     */
+    @Test void testSingleMeasurement() {
+        StartupStatistic startupStatistic = new StartupStatistic();
+        StartupMeasurement measurement = new StartupMeasurement();
+        measurement.setExtractionNanos(3 * NANOS_PER_MILLI);
+        measurement.setBootNanos(7 * NANOS_PER_MILLI);
+        startupStatistic.add(measurement);
+
+        for (double percentile : new double[] {0, 50, 90, 99, 100}) {
+            assertEquals(10 * NANOS_PER_MILLI, startupStatistic.percentile(StartupMeasurement::getTimeToReadyNanos, percentile));
+        }
+        assertTrue(startupStatistic.toString().startsWith("1 runs"));
+        assertTrue(startupStatistic.toString().contains("time to ready: 10 / 10 / 10 / 10"));
+    }
+}
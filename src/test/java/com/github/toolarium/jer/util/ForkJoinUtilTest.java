@@ -0,0 +1,120 @@
+/*
+ * ForkJoinUtilTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link ForkJoinUtil}.
+ *
+ * @author patrick
+ */
+public class ForkJoinUtilTest {
+    private static final int TASKS = 20;
+
+
+    /**
+     * Test that the results are in the order of the tasks outside and inside the pool.
+     *
+     * @throws InterruptedException In case of interruption
+     * @throws ExecutionException In case a task failed
+     */
+    @Test void testInvokeAll() throws InterruptedException, ExecutionException {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            assertEquals(getExpectedResults(), ForkJoinUtil.getInstance().invokeAll(forkJoinPool, createTasks(-1)));
+
+            // a nested stage runs inside the pool of the outer stage
+            List<Callable<List<Integer>>> outerTasks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                outerTasks.add(() -> ForkJoinUtil.getInstance().invokeAll(forkJoinPool, createTasks(-1)));
+            }
+            for (List<Integer> results : ForkJoinUtil.getInstance().invokeAll(forkJoinPool, outerTasks)) {
+                assertEquals(getExpectedResults(), results);
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+
+    /**
+     * Test that the exception of a failed task is the cause, outside and inside the pool, and that the pool is still usable.
+     *
+     * @throws InterruptedException In case of interruption
+     * @throws ExecutionException In case a task failed
+     */
+    @Test void testFailedTask() throws InterruptedException, ExecutionException {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> ForkJoinUtil.getInstance().invokeAll(forkJoinPool, createTasks(TASKS / 2)));
+            assertEquals(IOException.class, e.getCause().getClass());
+            assertEquals("Failed task " + TASKS / 2, e.getCause().getMessage());
+
+            List<Callable<List<Integer>>> outerTasks = Arrays.asList(() -> ForkJoinUtil.getInstance().invokeAll(forkJoinPool, createTasks(0)));
+            e = assertThrows(ExecutionException.class, () -> ForkJoinUtil.getInstance().invokeAll(forkJoinPool, outerTasks));
+
+            // the outer task failed with the exception of the nested stage
+            assertEquals(ExecutionException.class, e.getCause().getClass());
+            assertEquals(IOException.class, e.getCause().getCause().getClass());
+            assertEquals("Failed task 0", e.getCause().getCause().getMessage());
+
+            assertFalse(forkJoinPool.isShutdown());
+            assertEquals(getExpectedResults(), ForkJoinUtil.getInstance().invokeAll(forkJoinPool, createTasks(-1)));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        assertTrue(forkJoinPool.isShutdown());
+    }
+
+
+    /**
+     * Create the tasks, each returns its index
+     *
+     * @param failedTask the index of the task which fails or -1
+     * @return the tasks
+     */
+    private List<Callable<Integer>> createTasks(int failedTask) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            int index = i;
+            tasks.add(() -> {
+                if (index == failedTask) {
+                    throw new IOException("Failed task " + index);
+                }
+                return index;
+            });
+        }
+        return tasks;
+    }
+
+
+    /**
+     * Get the expected results of the tasks
+     *
+     * @return the expected results
+     */
+    private List<Integer> getExpectedResults() {
+        List<Integer> results = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            results.add(i);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * IoThrottleTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link IoThrottle}.
+ *
+ * @author patrick
+ */
+public class IoThrottleTest {
+    private static final long BYTES_PER_SECOND = 1000;
+    private static final long FILES_PER_SECOND = 10;
+    private static final long LOW_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+
+    /**
+     * Test that the byte bucket holds the budget of one second and that an exceeded budget waits.
+     */
+    @Test void testByteBucket() {
+        IoThrottle ioThrottle = new IoThrottle("test", BYTES_PER_SECOND, 0, false);
+        assertTrue(ioThrottle.isLimited());
+
+        long start = System.nanoTime();
+        ioThrottle.acquireBytes(BYTES_PER_SECOND);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+
+        start = System.nanoTime();
+        ioThrottle.acquireBytes(BYTES_PER_SECOND / 2);
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(400));
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(2));
+    }
+
+
+    /**
+     * Test that the file bucket holds the budget of one second and that an exceeded budget waits.
+     */
+    @Test void testFileBucket() {
+        IoThrottle ioThrottle = new IoThrottle("test", 0, FILES_PER_SECOND, false);
+        assertTrue(ioThrottle.isLimited());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FILES_PER_SECOND; i++) {
+            ioThrottle.acquireFile();
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+
+        start = System.nanoTime();
+        for (int i = 0; i < FILES_PER_SECOND / 2; i++) {
+            ioThrottle.acquireFile();
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400));
+    }
+
+
+    /**
+     * Test that an unlimited throttle never waits.
+     */
+    @Test void testUnlimited() {
+        IoThrottle ioThrottle = new IoThrottle("test", 0, 0, true);
+        assertFalse(ioThrottle.isLimited());
+
+        long start = System.nanoTime();
+        ioThrottle.acquireBytes(Long.MAX_VALUE / 2);
+        for (int i = 0; i < 1000; i++) {
+            ioThrottle.acquireFile();
+        }
+        ioThrottle.recordSyncLatency(0);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, ioThrottle.getCurrentBytesPerSecond());
+    }
+
+
+    /**
+     * Test that the adaptive mode raises the byte rate up to eight times the configured rate and falls back to it
+     * as soon as the latency rises.
+     */
+    @Test void testAdaptiveBounds() {
+        IoThrottle ioThrottle = createAdaptiveThrottle();
+        long previousBytesPerSecond = ioThrottle.getCurrentBytesPerSecond();
+        assertEquals(BYTES_PER_SECOND, previousBytesPerSecond);
+
+        ioThrottle.recordSyncLatency(0);
+        assertTrue(ioThrottle.getCurrentBytesPerSecond() > previousBytesPerSecond);
+        for (int i = 0; i < 50; i++) {
+            ioThrottle.recordSyncLatency(0);
+        }
+        assertEquals(BYTES_PER_SECOND * 8, ioThrottle.getCurrentBytesPerSecond());
+
+        ioThrottle.recordSyncLatency(LOW_LATENCY * 100);
+        assertEquals(BYTES_PER_SECOND, ioThrottle.getCurrentBytesPerSecond());
+        ioThrottle.recordSyncLatency(LOW_LATENCY * 100);
+        assertEquals(BYTES_PER_SECOND, ioThrottle.getCurrentBytesPerSecond());
+    }
+
+
+    /**
+     * Test that a fixed throttle ignores the latency.
+     */
+    @Test void testNotAdaptive() {
+        IoThrottle ioThrottle = new IoThrottle("test", BYTES_PER_SECOND, 0, false);
+        ioThrottle.setAdjustInterval(0);
+        for (int i = 0; i < 10; i++) {
+            ioThrottle.recordSyncLatency(0);
+            ioThrottle.recordWriteLatency(0);
+        }
+        assertEquals(BYTES_PER_SECOND, ioThrottle.getCurrentBytesPerSecond());
+    }
+
+
+    /**
+     * Test that either the sync or the write latency adjusts the byte rate and that no sync is forced if the write latency is used.
+     *
+     * @throws IOException In case of an I/O issue
+     */
+    @Test void testLatencySource() throws IOException {
+        IoThrottle ioThrottle = createAdaptiveThrottle();
+        ioThrottle.recordWriteLatency(0);
+        assertEquals(BYTES_PER_SECOND, ioThrottle.getCurrentBytesPerSecond());
+        ioThrottle.recordSyncLatency(0);
+        assertTrue(ioThrottle.getCurrentBytesPerSecond() > BYTES_PER_SECOND);
+
+        ioThrottle = createAdaptiveThrottle();
+        ioThrottle.setWriteLatency(true);
+        ioThrottle.recordSyncLatency(0);
+        assertEquals(BYTES_PER_SECOND, ioThrottle.getCurrentBytesPerSecond());
+        ioThrottle.recordWriteLatency(0);
+        assertTrue(ioThrottle.getCurrentBytesPerSecond() > BYTES_PER_SECOND);
+
+        // without a channel any forced sync would fail
+        ioThrottle.sampleSyncLatency(null);
+    }
+
+
+    /**
+     * Create an adaptive throttle which adjusts the byte rate on every recorded latency
+     *
+     * @return the throttle
+     */
+    private IoThrottle createAdaptiveThrottle() {
+        IoThrottle ioThrottle = new IoThrottle("test", BYTES_PER_SECOND, 0, true);
+        ioThrottle.setLowLatency(LOW_LATENCY);
+        ioThrottle.setAdjustInterval(0);
+        return ioThrottle;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * JarWatcherTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.jer.watch;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.toolarium.jer.archive.ExtractionUsage;
+import com.github.toolarium.jer.archive.JarExtractor;
+import com.github.toolarium.jer.archive.VerificationPolicy;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link JarWatcher}.
+ *
+ * @author patrick
+ */
+public class JarWatcherTest {
+    private static final long QUIET_PERIOD = 100;
+
+
+    /**
+     * Test that a jar is only stable after it has not changed during the quiet period.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws InterruptedException In case of interruption
+     */
+    @Test void testQuietPeriod() throws IOException, InterruptedException {
+        File path = Files.createTempDirectory("jer-watch").toFile();
+        File jarFile = writeJar(new File(path, "app.jar"), "v1");
+        JarWatcher.PendingJar pendingJar = new JarWatcher.PendingJar(jarFile.toPath());
+        pendingJar.update();
+        assertFalse(pendingJar.isStable(QUIET_PERIOD));
+
+        Thread.sleep(QUIET_PERIOD * 2);
+        assertTrue(pendingJar.isStable(QUIET_PERIOD));
+
+        // a change restarts the quiet period
+        writeJar(jarFile, "version 2 with another size");
+        assertFalse(pendingJar.isStable(QUIET_PERIOD));
+        Thread.sleep(QUIET_PERIOD * 2);
+        assertTrue(pendingJar.isStable(QUIET_PERIOD));
+    }
+
+
+    /**
+     * Test that the extractions of the previous versions are removed, except extractions in use and extractions of a jar
+     * with the same name in another path.
+     *
+     * @throws IOException In case of an I/O issue
+     * @throws IllegalAccessException In case the jar can not be accessed
+     */
+    @Test void testRemoveSupersededExtractions() throws IOException, IllegalAccessException {
+        File path = Files.createTempDirectory("jer-watch").toFile();
+        File destinationPath = new File(path, "destination");
+        File otherPath = new File(path, "other");
+        otherPath.mkdirs();
+        JarWatcher jarWatcher = new JarWatcher(Arrays.asList(path), destinationPath.getPath(), null, this::createJarExtractor, QUIET_PERIOD);
+
+        File jarFile = writeJar(new File(path, "app.jar"), "v1");
+        File firstExtraction = createJarExtractor().extract(destinationPath.getPath(), jarFile.getPath(), null, false);
+        File otherExtraction = createJarExtractor().extract(destinationPath.getPath(), writeJar(new File(otherPath, "app.jar"), "other").getPath(), null, false);
+        File usedExtraction;
+        writeJar(jarFile, "v2");
+        try (ExtractionUsage extractionUsage = ExtractionUsage.use(createJarExtractor().extract(destinationPath.getPath(), jarFile.getPath(), null, false))) {
+            usedExtraction = extractionUsage.getExtraction();
+
+            writeJar(jarFile, "v3");
+            jarWatcher.extract(jarFile);
+        }
+
+        File currentExtraction = createJarExtractor().extract(destinationPath.getPath(), jarFile.getPath(), null, false);
+        assertNotEquals(firstExtraction, currentExtraction);
+        assertTrue(new File(currentExtraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+        assertFalse(firstExtraction.exists());
+        assertFalse(new File(firstExtraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+        assertFalse(ExtractionUsage.getUsageFile(firstExtraction).exists());
+        assertTrue(new File(usedExtraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+        assertTrue(new File(otherExtraction.getPath() + JarExtractor.COMPLETE_SUFFIX).exists());
+    }
+
+
+    /**
+     * Create a jar extractor
+     *
+     * @return the jar extractor
+     */
+    private JarExtractor createJarExtractor() {
+        JarExtractor jarExtractor = new JarExtractor();
+        jarExtractor.setVerificationPolicy(VerificationPolicy.OFF);
+        return jarExtractor;
+    }
+
+
+    /**
+     * Write a jar with one entry
+     *
+     * @param jarFile the jar file
+     * @param content the content of the entry
+     * @return the jar file
+     * @throws IOException In case of an I/O issue
+     */
+    private File writeJar(File jarFile, String content) throws IOException {
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile))) {
+            jos.putNextEntry(new JarEntry("content.txt"));
+            jos.write(content.getBytes(StandardCharsets.UTF_8));
+            jos.closeEntry();
+        }
+        return jarFile;
+    }
+}